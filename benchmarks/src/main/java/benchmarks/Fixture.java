@@ -0,0 +1,32 @@
+package benchmarks;
+
+import io.restassured.builder.ResponseBuilder;
+import io.restassured.response.Response;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+// Recorded list payloads, named <endpoint>-<elements>.json
+public class Fixture {
+
+    public static byte[] Load(String endpoint, int elements) {
+        String name = "/fixtures/" + endpoint + "-" + elements + ".json";
+        try (InputStream in = Fixture.class.getResourceAsStream(name)) {
+            if (in == null)
+                throw new IllegalArgumentException("No fixture " + name);
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // What extract().response() hands the tests, minus the network
+    public static Response AsResponse(byte[] body) {
+        return new ResponseBuilder()
+                .setStatusCode(200)
+                .setContentType("application/json; charset=utf-8")
+                .setBody(body)
+                .build();
+    }
+}
@@ -0,0 +1,111 @@
+package benchmarks;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import groovy.json.JsonSlurper;
+import io.restassured.path.json.JsonPath;
+import io.restassured.response.Response;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Extracting the ids of a list body, and materializing it, with the parsers the suite
+// uses (JsonPath, path("")) against the ones it could use instead.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParseBenchmark {
+    private static final JsonFactory factory = new JsonFactory();
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    @Param({"components", "incidents"})
+    public String endpoint;
+
+    @Param({"1", "10", "100"})
+    public int elements;
+
+    private byte[] body;
+    private Response response;
+
+    @Setup
+    public void LoadFixture() {
+        body = Fixture.Load(endpoint, elements);
+        response = Fixture.AsResponse(body);
+    }
+
+    // response.jsonPath().getList("id") as Fixtures and the tests call it
+    @Benchmark
+    public List<String> JsonPathIds() {
+        return response.jsonPath().getList("id");
+    }
+
+    // body().path("") as the tree comparison calls it
+    @Benchmark
+    public Object BodyPathRoot() {
+        return response.body().path("");
+    }
+
+    @Benchmark
+    public List<String> JsonPathFromString() {
+        return new JsonPath(new String(body, StandardCharsets.UTF_8)).getList("id");
+    }
+
+    // JsonPath's underlying parser without the Groovy path evaluation
+    @Benchmark
+    public Object GroovySlurper() {
+        return new JsonSlurper().parse(body);
+    }
+
+    @Benchmark
+    public List<String> JacksonTreeIds() throws IOException {
+        List<String> ids = new ArrayList<>();
+        for (JsonNode element : mapper.readTree(body))
+            ids.add(element.get("id").asText());
+        return ids;
+    }
+
+    @Benchmark
+    public Object JacksonTree() throws IOException {
+        return mapper.readValue(body, Object.class);
+    }
+
+    // what StreamingListValidator does: tokens only, skip everything but top-level ids
+    @Benchmark
+    public List<String> JacksonStreamingIds() throws IOException {
+        List<String> ids = new ArrayList<>();
+        try (JsonParser parser = factory.createParser(body)) {
+            parser.nextToken();
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.getCurrentName();
+                    JsonToken value = parser.nextToken();
+                    if (field.equals("id"))
+                        ids.add(parser.getText());
+                    else if (value.isStructStart())
+                        parser.skipChildren();
+                }
+            }
+        }
+        return ids;
+    }
+}
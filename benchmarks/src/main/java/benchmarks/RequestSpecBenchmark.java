@@ -0,0 +1,66 @@
+package benchmarks;
+
+import io.restassured.RestAssured;
+import io.restassured.builder.RequestSpecBuilder;
+import io.restassured.filter.Filter;
+import io.restassured.specification.RequestSpecification;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Cost of getting a request specification ready to send, the way each test starts.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RequestSpecBenchmark {
+    private static final String token = "0123456789abcdef0123456789abcdef";
+
+    private RequestSpecification prebuilt;
+
+    @Setup
+    public void BuildSpec() {
+        Filter passThrough = (requestSpec, responseSpec, ctx) -> ctx.next(requestSpec, responseSpec);
+        prebuilt = new RequestSpecBuilder()
+                .addFilter(passThrough)
+                .addFilter(passThrough)
+                .addHeader("Authorization", "Bearer " + token)
+                .build();
+    }
+
+    @Benchmark
+    public RequestSpecification EmptyGiven() {
+        return RestAssured.given();
+    }
+
+    // the original tests: a fresh specification with the header added per call
+    @Benchmark
+    public RequestSpecification HeaderPerCall() {
+        return RestAssured.given()
+                .header("Authorization", "Bearer " + token);
+    }
+
+    // Api.given(): merge a specification built once per run
+    @Benchmark
+    public RequestSpecification PrebuiltSpec() {
+        return RestAssured.given(prebuilt);
+    }
+
+    @Benchmark
+    public RequestSpecification PrebuiltSpecBuilder() {
+        return new RequestSpecBuilder()
+                .addHeader("Authorization", "Bearer " + token)
+                .build();
+    }
+}
@@ -0,0 +1,73 @@
+package benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.networknt.schema.JsonSchema;
+import com.networknt.schema.JsonSchemaFactory;
+import com.networknt.schema.SpecVersion;
+import com.networknt.schema.ValidationMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// What SchemaValidator adds to each list response: one tree parse and one validation
+// against a schema compiled up front, shared by all threads as in a parallel run.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class SchemaBenchmark {
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    @Param({"components", "incidents"})
+    public String endpoint;
+
+    @Param({"1", "10", "100"})
+    public int elements;
+
+    private byte[] body;
+    private JsonSchema schema;
+
+    @Setup
+    public void Compile() throws IOException {
+        body = Fixture.Load(endpoint, elements);
+        String entity = endpoint.substring(0, endpoint.length() - 1);
+        try (InputStream in = SchemaBenchmark.class.getResourceAsStream("/schemas/" + entity + ".json")) {
+            JsonNode item = mapper.readTree(in);
+            ObjectNode list = mapper.createObjectNode();
+            list.set("$schema", item.get("$schema"));
+            list.put("type", "array");
+            list.set("items", item);
+            schema = JsonSchemaFactory.getInstance(SpecVersion.VersionFlag.V7).getSchema(list);
+            schema.initializeValidators();
+        }
+    }
+
+    @Benchmark
+    public JsonNode ParseOnly() throws IOException {
+        return mapper.readTree(body);
+    }
+
+    @Benchmark
+    public Set<ValidationMessage> ParseAndValidate() throws IOException {
+        return schema.validate(mapper.readTree(body));
+    }
+}
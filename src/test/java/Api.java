@@ -0,0 +1,202 @@
+import io.restassured.RestAssured;
+import io.restassured.builder.RequestSpecBuilder;
+import io.restassured.config.DecoderConfig;
+import io.restassured.config.HttpClientConfig;
+import io.restassured.config.RestAssuredConfig;
+import io.restassured.response.Response;
+import io.restassured.specification.RequestSpecification;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+
+public class Api {
+    public static final String liveBaseUrl = "https://api.instatus.com/v1/";
+
+    private static volatile String baseUrl = liveBaseUrl;
+    private static volatile String bearerToken;
+    private static volatile ResponseCache cache;
+    private static volatile Cassette cassette;
+    private static volatile boolean schemaValidation;
+    private static volatile RateLimiter rateLimiter = new RateLimiter(0, 1, 3);
+    private static volatile CircuitBreaker circuitBreaker = new CircuitBreaker(5);
+    private static volatile Timeouts timeouts = Timeouts.Defaults();
+    private static volatile List<DecoderConfig.ContentDecoder> contentDecoders = Decoders("gzip,deflate");
+    private static volatile RestAssuredConfig config = NewConfig();
+    private static volatile RequestSpecification anonymous = Spec(null, true);
+    private static volatile RequestSpecification authenticated = Spec(null, true);
+    private static volatile RequestSpecification fresh = Spec(null, false);
+
+    public static String baseUrl() {
+        return baseUrl;
+    }
+
+    public static String bearerToken() {
+        return bearerToken;
+    }
+
+    public static ResponseCache cache() {
+        return cache;
+    }
+
+    public static Cassette cassette() {
+        return cassette;
+    }
+
+    public static RateLimiter rateLimiter() {
+        return rateLimiter;
+    }
+
+    public static CircuitBreaker circuitBreaker() {
+        return circuitBreaker;
+    }
+
+    public static Timeouts timeouts() {
+        return timeouts;
+    }
+
+    public static List<DecoderConfig.ContentDecoder> contentDecoders() {
+        return contentDecoders;
+    }
+
+    // Authenticated request on the shared keep-alive client
+    public static RequestSpecification given() {
+        return RestAssured.given(authenticated);
+    }
+
+    // Authenticated request that always goes to the network, even with the cache on
+    public static RequestSpecification fresh() {
+        return RestAssured.given(fresh);
+    }
+
+    // Fresh request offering only the given encodings, in the syntax of SetCompression.
+    // The client decodes whatever comes back, so only the header differs.
+    public static RequestSpecification freshAccepting(String encodings) {
+        List<DecoderConfig.ContentDecoder> decoders = Decoders(encodings);
+        return RestAssured.given(fresh).header("Accept-Encoding", AcceptEncoding(decoders, "identity"));
+    }
+
+    // Authenticated GET issued on its own virtual thread; join with Async.Join
+    public static CompletableFuture<Response> getAsync(String url) {
+        return Async.Run(() -> given().when().get(url).then().extract().response());
+    }
+
+    // Same client, no Authorization header
+    public static RequestSpecification anonymous() {
+        return RestAssured.given(anonymous);
+    }
+
+    static synchronized void SetTarget(String url, String token) {
+        Shutdown();
+        config = NewConfig();
+        baseUrl = url.endsWith("/") ? url : url + "/";
+        bearerToken = token;
+        BuildSpecs();
+    }
+
+    // capacity 0 turns the cache off
+    static synchronized void SetResponseCache(int capacity) {
+        cache = capacity > 0 ? new ResponseCache(capacity) : null;
+        BuildSpecs();
+    }
+
+    static synchronized void SetSchemaValidation(boolean enabled) {
+        schemaValidation = enabled;
+        BuildSpecs();
+    }
+
+    // null records and replays nothing
+    static synchronized void SetCassette(Cassette recordOrReplay) {
+        cassette = recordOrReplay;
+        BuildSpecs();
+    }
+
+    // requestsPerSecond 0 only honors 429s and rate-limit headers
+    static synchronized void SetRateLimit(double requestsPerSecond, int burst, int maxRetries) {
+        rateLimiter = new RateLimiter(requestsPerSecond, burst, maxRetries);
+        BuildSpecs();
+    }
+
+    // failures 0 keeps the breaker closed unless the preflight probe opens it
+    static synchronized void SetCircuitBreaker(int failures) {
+        circuitBreaker = new CircuitBreaker(failures);
+        BuildSpecs();
+    }
+
+    // the connect timeout belongs to the client, so a new one is built for it
+    static synchronized void SetTimeouts(Timeouts configured) {
+        Shutdown();
+        timeouts = configured;
+        config = NewConfig();
+        BuildSpecs();
+    }
+
+    // comma-separated gzip and/or deflate, offered as Accept-Encoding; "none" offers nothing.
+    // Encoded bodies are decoded as they stream in either way.
+    static synchronized void SetCompression(String encodings) {
+        List<DecoderConfig.ContentDecoder> decoders = Decoders(encodings);
+        Shutdown();
+        contentDecoders = decoders;
+        config = NewConfig();
+        BuildSpecs();
+    }
+
+    static synchronized void Shutdown() {
+        PooledHttpClient.Shutdown(config.getHttpClientConfig().httpClientInstance());
+    }
+
+    private static void BuildSpecs() {
+        anonymous = Spec(null, true);
+        authenticated = Spec(bearerToken, true);
+        fresh = Spec(bearerToken, false);
+    }
+
+    // RestAssured's own decoders stay off: PooledHttpClient decodes
+    private static RestAssuredConfig NewConfig() {
+        String acceptEncoding = AcceptEncoding(contentDecoders, null);
+        Timeouts clientTimeouts = timeouts;
+        return RestAssuredConfig.config().decoderConfig(DecoderConfig.decoderConfig().noContentDecoders())
+                .httpClient(HttpClientConfig.httpClientConfig()
+                        .reuseHttpClientInstance()
+                        .httpClientFactory(() -> PooledHttpClient.Create(acceptEncoding, clientTimeouts)));
+    }
+
+    private static List<DecoderConfig.ContentDecoder> Decoders(String encodings) {
+        List<DecoderConfig.ContentDecoder> decoders = new ArrayList<>();
+        for (String encoding : encodings.split(",")) {
+            if (!encoding.isBlank() && !encoding.trim().equals("none"))
+                decoders.add(DecoderConfig.ContentDecoder.valueOf(encoding.trim().toUpperCase(Locale.ROOT)));
+        }
+        return List.copyOf(decoders);
+    }
+
+    private static String AcceptEncoding(List<DecoderConfig.ContentDecoder> decoders, String none) {
+        if (decoders.isEmpty())
+            return none;
+        List<String> encodings = new ArrayList<>();
+        for (DecoderConfig.ContentDecoder decoder : decoders)
+            encodings.add(decoder.name().toLowerCase(Locale.ROOT));
+        return String.join(",", encodings);
+    }
+
+    private static RequestSpecification Spec(String token, boolean cached) {
+        RequestSpecBuilder builder = new RequestSpecBuilder().setConfig(config);
+        builder.addFilter(rateLimiter.retrying());
+        builder.addFilter(TrafficRecorder::Request);
+        if (cached && cache != null)
+            builder.addFilter(cache);
+        if (schemaValidation)
+            builder.addFilter(SchemaValidator::Validate);
+        if (cassette != null)
+            builder.addFilter(cassette);
+        builder.addFilter(circuitBreaker);
+        builder.addFilter(rateLimiter);
+        builder.addFilter(TrafficRecorder::Wire);
+        builder.addFilter(LatencyRecorder::Record);
+        builder.addFilter(PooledHttpClient::Release);
+        if (token != null)
+            builder.addHeader("Authorization", "Bearer " + token);
+        return builder.build();
+    }
+}
@@ -0,0 +1,321 @@
+import org.testng.Assert;
+import org.testng.Reporter;
+import org.testng.SkipException;
+import org.testng.annotations.AfterSuite;
+import org.testng.annotations.BeforeSuite;
+import org.testng.annotations.Optional;
+import org.testng.annotations.Parameters;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+public class ApiSuite {
+    public static final String localTarget = "local";
+
+    private static InstatusStandIn standIn;
+    private static FaultProxy faultProxy;
+    private static String trafficReport = "";
+    private static String target = "";
+    private static String fixturesFile = "";
+    private static String latencyBaseline = "";
+    private static int latencyBaselineRuns;
+    private static double latencyRegressionAlpha;
+    private static FixtureSeeder seeder;
+
+    @BeforeSuite(alwaysRun = true)
+    @Parameters({"baseUrl", "bearerToken", "responseCache", "bodyComparison", "rateLimit",
+            "rateLimitBurst", "rateLimitRetries", "cassette", "cassetteMode",
+            "trafficReport", "schemaValidation", "connectTimeout", "readTimeouts", "circuitBreaker",
+            "latencyBaseline", "latencyBaselineRuns", "latencyRegressionAlpha", "fixturesFile",
+            "compression", "faults", "faultSeed"})
+    public void SetTarget(@Optional(Api.liveBaseUrl) String baseUrl, String token,
+            @Optional("0") int responseCache,
+            @Optional(BodyComparison.digestMode) String bodyComparison,
+            @Optional("0") double rateLimit,
+            @Optional("10") int rateLimitBurst,
+            @Optional("3") int rateLimitRetries,
+            @Optional("") String cassette,
+            @Optional(Cassette.recordMode) String cassetteMode,
+            @Optional("target/traffic-report.json") String trafficReport,
+            @Optional("true") boolean schemaValidation,
+            @Optional("5000") int connectTimeout,
+            @Optional("*=15000") String readTimeouts,
+            @Optional("5") int circuitBreaker,
+            @Optional("") String latencyBaseline,
+            @Optional("10") int latencyBaselineRuns,
+            @Optional("0.01") double latencyRegressionAlpha,
+            @Optional("") String fixturesFile,
+            @Optional("gzip,deflate") String compression,
+            @Optional("") String faults,
+            @Optional("1") long faultSeed) throws IOException {
+        baseUrl = System.getProperty("baseUrl", baseUrl);
+        // runs against the stand-in share a baseline and fixtures whatever port it got
+        ApiSuite.target = baseUrl;
+        if (baseUrl.equals(localTarget)) {
+            standIn = new InstatusStandIn(token);
+            baseUrl = standIn.start();
+            Reporter.log("Running against local Instatus stand-in at " + baseUrl, true);
+        }
+        faultProxy = null;
+        if (!faults.isBlank()) {
+            faultProxy = new FaultProxy(baseUrl, FaultProxy.Faults.Parse(faults), faultSeed);
+            baseUrl = faultProxy.start();
+            Reporter.log("Injecting faults through proxy at " + baseUrl + ": " + faults, true);
+        }
+        Api.SetTarget(baseUrl, token);
+        Api.SetTimeouts(Timeouts.Parse(connectTimeout, readTimeouts));
+        Api.SetCircuitBreaker(circuitBreaker);
+        Api.SetCompression(compression);
+        Api.SetResponseCache(responseCache);
+        Api.SetRateLimit(rateLimit, rateLimitBurst, rateLimitRetries);
+        Api.SetSchemaValidation(schemaValidation);
+        if (schemaValidation)
+            Reporter.log("Validating responses against " + SchemaValidator.endpoints() + " JSON schemas", true);
+        if (!cassette.isBlank()) {
+            Api.SetCassette(Cassette.Open(Path.of(cassette), cassetteMode));
+            Reporter.log((cassetteMode.equals(Cassette.recordMode) ? "Recording to" : "Replaying from")
+                    + " cassette " + cassette, true);
+        }
+        BodyComparison.SetMode(bodyComparison);
+        LatencyRecorder.Reset();
+        TrafficRecorder.Reset();
+        Fixtures.Reset();
+        ApiSuite.trafficReport = trafficReport;
+        ApiSuite.latencyBaseline = latencyBaseline;
+        ApiSuite.fixturesFile = System.getProperty("fixturesFile", fixturesFile);
+        ApiSuite.latencyBaselineRuns = latencyBaselineRuns;
+        ApiSuite.latencyRegressionAlpha = latencyRegressionAlpha;
+    }
+
+    // One request before any test: if the target cannot be reached or answers 502-504, the
+    // circuit breaker opens and every test skips on its first request.
+    @BeforeSuite(dependsOnMethods = "SetTarget")
+    public void Preflight() {
+        Cassette cassette = Api.cassette();
+        if (cassette != null && !cassette.recording())
+            return;
+
+        String url = Endpoint.PAGES.Url();
+        long start = System.nanoTime();
+        try {
+            int status = Api.fresh().when().get(url).getStatusCode();
+            if (status == 502 || status == 503 || status == 504)
+                Api.circuitBreaker().Open("preflight GET " + url + " returned " + status);
+        } catch (Exception e) {
+            if (!CircuitBreaker.IsOutage(e))
+                throw e;
+            Api.circuitBreaker().Open("preflight GET " + url + " failed with " + e);
+        } catch (AssertionError e) {
+            // the target answered; the tests that fetch the same route report the schema mismatch
+            Reporter.log("Preflight response failed validation: " + e.getMessage(), true);
+        }
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        if (Api.circuitBreaker().open())
+            Reporter.log("Target unhealthy after " + millis + "ms, all tests will skip: "
+                    + Api.circuitBreaker().openReason(), true);
+        else
+            Reporter.log("Preflight: " + Api.baseUrl() + " answered in " + millis + "ms (" + Api.timeouts() + ")", true);
+    }
+
+    // A page with a known number of components and incidents, so list and pagination tests do
+    // not depend on what the account holds. Always on the stand-in; elsewhere only with seedLive,
+    // on seedPage if given (else a page is created for the run), as it writes to the account.
+    // Off unless the suite asks for it: shards would each seed, and skip the shared fixturesFile.
+    @BeforeSuite(dependsOnMethods = "Preflight")
+    @Parameters({"seedComponents", "seedIncidents", "seedConcurrency", "seedPage", "seedLive"})
+    public void SeedFixtures(@Optional("0") int components, @Optional("0") int incidents,
+            @Optional("16") int concurrency, @Optional("") String page, @Optional("false") boolean live) {
+        if (components + incidents == 0 || Api.circuitBreaker().open())
+            return;
+        if (!target.equals(localTarget) && !live) {
+            Reporter.log("Not seeding fixtures on " + target + " without seedLive", true);
+            return;
+        }
+
+        if (!fixturesFile.isBlank())
+            Reporter.log("Seeding replaces the fixture ids, " + fixturesFile + " is neither read nor written", true);
+        seeder = new FixtureSeeder(components, incidents, concurrency);
+        long start = System.nanoTime();
+        seeder.Seed(page);
+        Fixtures.Use(seeder.pageId(), seeder.firstComponentId(), seeder.firstIncidentId());
+        Reporter.log(String.format("Seeded %d components and %d incidents on %s page %s in %.1fs, %d at a time",
+                components, incidents, seeder.ownsPage() ? "new" : "dedicated", seeder.pageId(),
+                (System.nanoTime() - start) / 1e9, seeder.concurrency()), true);
+    }
+
+    @BeforeSuite(dependsOnMethods = "SeedFixtures")
+    public void ResolveFixtures() throws IOException {
+        // a seeded page only lives for this run, so its ids are neither loaded nor saved
+        Path file = fixturesFile.isBlank() || seeder != null ? null : Path.of(fixturesFile);
+        boolean loaded = file != null && Fixtures.Load(file, target);
+        if (loaded)
+            Reporter.log("Fixture ids loaded from " + file, true);
+        try {
+            Fixtures.Resolve();
+            if (file != null && !loaded) {
+                Fixtures.Save(file, target);
+                Reporter.log("Fixture ids saved to " + file, true);
+            }
+        } catch (SkipException e) {
+            Reporter.log("Fixture registry incomplete, dependent tests will skip: " + e.getMessage(), true);
+        } catch (AssertionError e) {
+            // a schema mismatch fails the tests that look the id up again, not the whole suite
+            Reporter.log("Fixture registry incomplete, bootstrap response failed validation: " + e.getMessage(), true);
+        }
+    }
+
+    @AfterSuite(alwaysRun = true)
+    public void ReportFixtures() {
+        Reporter.log("Fixture registry: " + Fixtures.lookups() + " lookups served by "
+                + Fixtures.requests() + " requests (" + Fixtures.savedRequests() + " bootstrap requests saved)", true);
+    }
+
+    @AfterSuite(alwaysRun = true)
+    public void ReportConnections() {
+        Reporter.log("HTTP connections: " + PooledHttpClient.newConnections() + " opened, "
+                + PooledHttpClient.reusedConnections() + " requests on reused keep-alive connections", true);
+    }
+
+    @AfterSuite(alwaysRun = true)
+    public void ReportCache() {
+        ResponseCache cache = Api.cache();
+        if (cache != null)
+            Reporter.log("Response cache: " + cache.hits() + " hits, " + cache.coalesced() + " coalesced in flight, "
+                    + cache.misses() + " misses, " + cache.evictions() + " evictions", true);
+    }
+
+    @AfterSuite(alwaysRun = true)
+    public void ReportRateLimit() {
+        RateLimiter limiter = Api.rateLimiter();
+        Reporter.log("Rate limit: " + limiter.throttled() + " requests throttled for " + limiter.throttledMillis()
+                + "ms, " + limiter.tooManyRequests() + " 429 responses, " + limiter.retries() + " retries", true);
+        for (String line : limiter.ThrottledTests())
+            Reporter.log("  " + line, true);
+    }
+
+    @AfterSuite(alwaysRun = true)
+    public void ReportFaults() {
+        if (faultProxy == null)
+            return;
+        Reporter.log("Injected faults:", true);
+        for (String line : faultProxy.Report())
+            Reporter.log("  " + line, true);
+    }
+
+    @AfterSuite(alwaysRun = true)
+    public void ReportCircuitBreaker() {
+        CircuitBreaker breaker = Api.circuitBreaker();
+        if (breaker.open())
+            Reporter.log("Circuit breaker: open, " + breaker.refused() + " requests refused: "
+                    + breaker.openReason(), true);
+        else if (breaker.failures() > 0)
+            Reporter.log("Circuit breaker: closed, " + breaker.failures() + " failed requests", true);
+    }
+
+    // after the teardown DELETEs, which a recording cassette stores too
+    @AfterSuite(alwaysRun = true, dependsOnMethods = "TeardownFixtures")
+    public void CloseCassette() throws IOException {
+        Cassette cassette = Api.cassette();
+        if (cassette == null)
+            return;
+        cassette.close();
+        if (cassette.recording())
+            Reporter.log("Cassette: recorded " + cassette.recorded() + " responses (" + cassette.repeats()
+                    + " repeated requests not stored) to " + cassette.path(), true);
+        else
+            Reporter.log("Cassette: replayed " + cassette.replayed() + " responses from " + cassette.size()
+                    + " recorded in " + cassette.path(), true);
+    }
+
+    @AfterSuite(alwaysRun = true)
+    public void ReportTraffic() throws IOException {
+        Reporter.log("Traffic: " + TrafficRecorder.Total(), true);
+        for (Map.Entry<Endpoint, TrafficRecorder.Traffic> entry : TrafficRecorder.ByEndpoint().entrySet()) {
+            TrafficRecorder.Traffic traffic = entry.getValue();
+            if (traffic.bodyBytes() > 0)
+                Reporter.log(String.format("  %-10s %6d body bytes on the wire for %6d decoded (%.0f%%)",
+                        entry.getKey().label, traffic.wireBodyBytes(), traffic.bodyBytes(),
+                        100.0 * traffic.wireBodyBytes() / traffic.bodyBytes()), true);
+        }
+        if (!trafficReport.isBlank()) {
+            TrafficRecorder.WriteReport(Path.of(trafficReport));
+            Reporter.log("Per-test traffic written to " + trafficReport, true);
+        }
+    }
+
+    @AfterSuite(alwaysRun = true)
+    public void ReportSchemaValidation() {
+        if (SchemaValidator.validated() > 0)
+            Reporter.log("Schema validation: " + SchemaValidator.validated() + " responses validated, "
+                    + SchemaValidator.violations() + " did not match", true);
+    }
+
+    @AfterSuite(alwaysRun = true)
+    public void ReportLatency() {
+        Reporter.log("Latency by endpoint and status:", true);
+        for (String line : LatencyRecorder.Report())
+            Reporter.log("  " + line, true);
+
+    }
+
+    // compares this run with the previous ones in the baseline file, then appends it
+    @AfterSuite(alwaysRun = true)
+    public void CompareLatencyBaseline() throws IOException {
+        Map<Endpoint, long[]> samples = LatencyRecorder.Samples();
+        if (latencyBaseline.isBlank() || samples.isEmpty())
+            return;
+        // injected latency and errors are not the target's, so neither compared nor kept
+        if (faultProxy != null) {
+            Reporter.log("Latency baseline " + latencyBaseline + " skipped, faults were injected", true);
+            return;
+        }
+
+        LatencyBaseline baseline = LatencyBaseline.Load(Path.of(latencyBaseline));
+        List<LatencyBaseline.Comparison> comparisons = baseline.Compare(target, samples,
+                latencyBaselineRuns, latencyRegressionAlpha);
+        Reporter.log("Latency against the last " + latencyBaselineRuns + " runs in " + latencyBaseline
+                + " (one-sided Mann-Whitney U against each run, alpha " + latencyRegressionAlpha + "):", true);
+        for (LatencyBaseline.Comparison comparison : comparisons)
+            Reporter.log("  " + comparison, true);
+        long slower = comparisons.stream().filter(c -> c.slower).count();
+        if (slower > 0)
+            Reporter.log("Latency regression: " + slower + " endpoints significantly slower than their baseline", true);
+        baseline.Append(target, samples);
+    }
+
+    // the seeded page of this run; null when nothing was seeded
+    static FixtureSeeder seeder() {
+        return seeder;
+    }
+
+    // deletes what SeedFixtures created, also after a partial seeding
+    @AfterSuite(alwaysRun = true)
+    public void TeardownFixtures() {
+        if (seeder == null)
+            return;
+        FixtureSeeder seeded = seeder;
+        seeder = null;
+        long start = System.nanoTime();
+        int count = seeded.seeded();
+        List<String> failures = seeded.Teardown();
+        Reporter.log(String.format("Deleted %d seeded entities%s in %.1fs, %d failed", count,
+                seeded.ownsPage() ? " and page " + seeded.pageId() : "", (System.nanoTime() - start) / 1e9,
+                failures.size()), true);
+        Assert.assertTrue(failures.isEmpty(), "Seeded fixtures left on page " + seeded.pageId() + ": "
+                + failures.subList(0, Math.min(10, failures.size())));
+    }
+
+    @AfterSuite(alwaysRun = true, dependsOnMethods = "TeardownFixtures")
+    public void StopTarget() {
+        Api.Shutdown();
+        // kept for ReportFaults, which may run after this
+        if (faultProxy != null)
+            faultProxy.stop();
+        if (standIn != null) {
+            standIn.stop();
+            standIn = null;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+import org.testng.ITestResult;
+import org.testng.Reporter;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+// Independent requests of one test issued together: each runs on its own virtual thread
+// and is still attributed to the calling test (traffic, budgets, throttling).
+//
+//   CompletableFuture<Response> page1 = Async.Run(() -> Api.given().get(url + "?page=1"));
+//   CompletableFuture<Response> page2 = Async.Run(() -> Api.given().get(url + "?page=2"));
+//   BodyComparison.AssertDifferentBody(Async.Join(page1), Async.Join(page2));
+public class Async {
+    private static final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public static <T> CompletableFuture<T> Run(Supplier<T> task) {
+        ITestResult test = Reporter.getCurrentTestResult();
+        return CompletableFuture.supplyAsync(() -> {
+            Reporter.setCurrentTestResult(test);
+            return task.get();
+        }, executor);
+    }
+
+    // join() that rethrows what the task threw, so assertion failures stay failures
+    public static <T> T Join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            if (e.getCause() instanceof Error)
+                throw (Error) e.getCause();
+            throw e;
+        }
+    }
+}
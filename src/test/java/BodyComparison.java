@@ -0,0 +1,84 @@
+import io.restassured.response.Response;
+import org.testng.Assert;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+
+// Equality of two JSON bodies for the pagination checks. In digest mode each body is
+// reduced to a JsonDigest and only a mismatch pays for parsing both into trees to report
+// where they differ. Tree mode is the old full deserialization and equals().
+public class BodyComparison {
+    public static final String digestMode = "digest";
+    public static final String treeMode = "tree";
+
+    private static final int maxReportedDifferences = 10;
+
+    private static volatile String mode = digestMode;
+
+    static void SetMode(String comparisonMode) {
+        if (!comparisonMode.equals(digestMode) && !comparisonMode.equals(treeMode))
+            throw new IllegalArgumentException("Unknown body comparison mode " + comparisonMode);
+        mode = comparisonMode;
+    }
+
+    public static void AssertSameBody(Response actual, Response expected) {
+        if (mode.equals(treeMode)) {
+            Assert.assertTrue(Objects.equals(actual.body().path(""), expected.body().path("")));
+            return;
+        }
+        if (!SameDigest(actual, expected))
+            Assert.fail("Bodies differ: " + Diff(actual, expected));
+    }
+
+    public static void AssertDifferentBody(Response actual, Response unexpected) {
+        if (mode.equals(treeMode)) {
+            Assert.assertFalse(Objects.equals(actual.body().path(""), unexpected.body().path("")));
+            return;
+        }
+        Assert.assertFalse(SameDigest(actual, unexpected), "Bodies are identical");
+    }
+
+    private static boolean SameDigest(Response a, Response b) {
+        return Arrays.equals(JsonDigest.Of(a.asInputStream()), JsonDigest.Of(b.asInputStream()));
+    }
+
+    static List<String> Diff(Response actual, Response expected) {
+        List<String> differences = new ArrayList<>();
+        Diff("$", actual.body().path(""), expected.body().path(""), differences);
+        return differences;
+    }
+
+    private static void Diff(String path, Object actual, Object expected, List<String> out) {
+        if (out.size() >= maxReportedDifferences)
+            return;
+
+        if (actual instanceof Map && expected instanceof Map) {
+            Map<?, ?> a = (Map<?, ?>) actual;
+            Map<?, ?> e = (Map<?, ?>) expected;
+            TreeSet<String> keys = new TreeSet<>();
+            a.keySet().forEach(k -> keys.add(k.toString()));
+            e.keySet().forEach(k -> keys.add(k.toString()));
+            for (String key : keys) {
+                if (!a.containsKey(key))
+                    out.add(path + "." + key + " missing");
+                else if (!e.containsKey(key))
+                    out.add(path + "." + key + " unexpected");
+                else
+                    Diff(path + "." + key, a.get(key), e.get(key), out);
+            }
+        } else if (actual instanceof List && expected instanceof List) {
+            List<?> a = (List<?>) actual;
+            List<?> e = (List<?>) expected;
+            if (a.size() != e.size())
+                out.add(path + " has " + a.size() + " elements, expected " + e.size());
+            for (int i = 0; i < Math.min(a.size(), e.size()); i++)
+                Diff(path + "[" + i + "]", a.get(i), e.get(i), out);
+        } else if (!Objects.equals(actual, expected)) {
+            out.add(path + " is " + actual + ", expected " + expected);
+        }
+    }
+}
@@ -0,0 +1,330 @@
+import io.restassured.builder.ResponseBuilder;
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.http.Header;
+import io.restassured.http.Headers;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+// Records every response that comes back from the network into one file and serves them
+// again without a network. Each response (status line, headers, body) is a separately
+// deflated block; an index of request key -> block at the end of the file lets replay
+// map the file read-only and inflate just the blocks it is asked for.
+//
+//   "IQAC" version | block... | index: count, (key, offset, length, rawLength)... | indexOffset "IQAC"
+//
+// Keys are method, URL relative to the base URL and a hash of the Authorization header,
+// so a cassette recorded against one host replays against any other and holds no token.
+// A request that sets its own Accept-Encoding also keys on it, as its response varies by it.
+// The first response recorded for a key is the one replayed. Bodies are stored decoded, so
+// the recorded headers drop Content-Encoding and Transfer-Encoding and give the decoded
+// Content-Length. Replay maps the whole file, which caps a cassette at 2 GiB.
+public class Cassette implements Filter, Closeable {
+    public static final String recordMode = "record";
+    public static final String replayMode = "replay";
+
+    private static final int magic = 0x49514143;
+    private static final int version = 1;
+    private static final int trailerLength = Long.BYTES + Integer.BYTES;
+    private static final int headerLength = 2 * Integer.BYTES;
+    // one MappedByteBuffer, which is int-indexed
+    private static final long maxSize = Integer.MAX_VALUE;
+
+    private final Path path;
+    private final boolean recording;
+    private final FileChannel channel;
+    private final Map<String, Block> index = new ConcurrentHashMap<>();
+    private final MappedByteBuffer mapped;
+
+    private final AtomicLong recorded = new AtomicLong();
+    private final AtomicLong replayed = new AtomicLong();
+    private final AtomicLong repeats = new AtomicLong();
+
+    private Cassette(Path path, boolean recording) throws IOException {
+        this.path = path;
+        this.recording = recording;
+        if (recording) {
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            ByteBuffer header = ByteBuffer.allocate(headerLength).putInt(magic).putInt(version).flip();
+            while (header.hasRemaining())
+                channel.write(header);
+            mapped = null;
+        } else {
+            try (FileChannel file = FileChannel.open(path, StandardOpenOption.READ)) {
+                if (file.size() > maxSize)
+                    throw new IOException(path + " is " + file.size() + " bytes, more than a cassette can hold");
+                mapped = file.map(FileChannel.MapMode.READ_ONLY, 0, file.size());
+            }
+            channel = null;
+            ReadIndex();
+        }
+    }
+
+    public static Cassette Open(Path path, String mode) throws IOException {
+        if (!mode.equals(recordMode) && !mode.equals(replayMode))
+            throw new IllegalArgumentException("Unknown cassette mode " + mode);
+        return new Cassette(path, mode.equals(recordMode));
+    }
+
+    @Override
+    public Response filter(FilterableRequestSpecification requestSpec,
+            FilterableResponseSpecification responseSpec, FilterContext ctx) {
+        String key = Key(requestSpec);
+        if (!recording) {
+            Block block = index.get(key);
+            if (block == null)
+                throw new IllegalStateException("Cassette " + path + " has no response for " + key);
+            replayed.incrementAndGet();
+            ctx.setValue(TrafficRecorder.replayedKey, true);
+            return Replay(block);
+        }
+
+        Response response = ctx.next(requestSpec, responseSpec);
+        if (index.containsKey(key))
+            repeats.incrementAndGet();
+        else
+            Record(key, response);
+        return response;
+    }
+
+    public boolean recording() {
+        return recording;
+    }
+
+    public Path path() {
+        return path;
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    public long recorded() {
+        return recorded.get();
+    }
+
+    public long replayed() {
+        return replayed.get();
+    }
+
+    public long repeats() {
+        return repeats.get();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (!recording || !channel.isOpen())
+            return;
+
+        long indexOffset = channel.position();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(index.size());
+        for (Map.Entry<String, Block> entry : index.entrySet()) {
+            out.writeUTF(entry.getKey());
+            out.writeLong(entry.getValue().offset);
+            out.writeInt(entry.getValue().length);
+            out.writeInt(entry.getValue().rawLength);
+        }
+        out.writeLong(indexOffset);
+        out.writeInt(magic);
+        Write(ByteBuffer.wrap(bytes.toByteArray()));
+        channel.close();
+    }
+
+    static String Key(FilterableRequestSpecification requestSpec) {
+        String uri = requestSpec.getURI();
+        String base = Api.baseUrl();
+        String relative = uri.startsWith(base) ? uri.substring(base.length()) : uri;
+        String key = requestSpec.getMethod() + " " + relative + " auth:"
+                + Hash(requestSpec.getHeaders().getValue("Authorization"));
+        String encoding = requestSpec.getHeaders().getValue("Accept-Encoding");
+        if (encoding != null)
+            key += " encoding:" + encoding;
+        Object body = requestSpec.getBody();
+        return body == null ? key : key + " body:" + Hash(body.toString());
+    }
+
+    private void Record(String key, Response response) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(response.getStatusCode());
+            out.writeUTF(response.getStatusLine());
+            byte[] body = response.asByteArray();
+            List<Header> headers = new ArrayList<>();
+            for (Header header : response.getHeaders()) {
+                if (!Describes(header, "Content-Encoding") && !Describes(header, "Transfer-Encoding")
+                        && !Describes(header, "Content-Length"))
+                    headers.add(header);
+            }
+            headers.add(new Header("Content-Length", Integer.toString(body.length)));
+            out.writeInt(headers.size());
+            for (Header header : headers) {
+                out.writeUTF(header.getName());
+                out.writeUTF(header.getValue());
+            }
+            out.writeInt(body.length);
+            out.write(body);
+
+            byte[] raw = bytes.toByteArray();
+            byte[] compressed = Deflate(raw);
+            synchronized (this) {
+                if (!channel.isOpen() || index.containsKey(key))
+                    return;
+                long offset = channel.position();
+                if (offset + compressed.length > maxSize - trailerLength)
+                    throw new IOException("Cassette " + path + " is full at " + offset + " bytes");
+                Write(ByteBuffer.wrap(compressed));
+                index.put(key, new Block(offset, compressed.length, raw.length));
+            }
+            recorded.incrementAndGet();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not record to cassette " + path, e);
+        }
+    }
+
+    private Response Replay(Block block) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(Inflate(block)))) {
+            int status = in.readInt();
+            String statusLine = in.readUTF();
+            List<Header> headers = new ArrayList<>();
+            for (int i = in.readInt(); i > 0; i--)
+                headers.add(new Header(in.readUTF(), in.readUTF()));
+            byte[] body = new byte[in.readInt()];
+            in.readFully(body);
+
+            Headers recorded = new Headers(headers);
+            ResponseBuilder builder = new ResponseBuilder()
+                    .setStatusCode(status)
+                    .setStatusLine(statusLine)
+                    .setHeaders(recorded)
+                    .setBody(body);
+            if (recorded.hasHeaderWithName("Content-Type"))
+                builder.setContentType(recorded.getValue("Content-Type"));
+            return builder.build();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Corrupt block in cassette " + path, e);
+        }
+    }
+
+    private void ReadIndex() throws IOException {
+        int size = mapped.capacity();
+        if (size < headerLength + trailerLength || mapped.getInt(0) != magic
+                || mapped.getInt(size - Integer.BYTES) != magic)
+            throw new IOException(path + " is not a cassette or was not closed after recording");
+        if (mapped.getInt(Integer.BYTES) != version)
+            throw new IOException(path + " has unsupported cassette version " + mapped.getInt(Integer.BYTES));
+
+        long indexOffset = mapped.getLong(size - trailerLength);
+        if (indexOffset < headerLength || indexOffset > size - trailerLength)
+            throw new IOException(path + " has its index at " + indexOffset + ", outside the file");
+        byte[] bytes = new byte[size - trailerLength - (int) indexOffset];
+        mapped.get((int) indexOffset, bytes);
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        for (int i = in.readInt(); i > 0; i--) {
+            String key = in.readUTF();
+            Block block = new Block(in.readLong(), in.readInt(), in.readInt());
+            if (block.offset < headerLength || block.length < 0 || block.offset + block.length > indexOffset)
+                throw new IOException(path + " has a block at " + block.offset + " outside the recorded responses");
+            if (block.rawLength < 0)
+                throw new IOException(path + " has a block at " + block.offset + " of negative length " + block.rawLength);
+            index.put(key, block);
+        }
+    }
+
+    private void Write(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+    }
+
+    private static boolean Describes(Header header, String name) {
+        return header.getName().equalsIgnoreCase(name);
+    }
+
+    private static byte[] Deflate(byte[] raw) {
+        Deflater deflater = new Deflater();
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length / 4 + 64);
+            byte[] chunk = new byte[8192];
+            while (!deflater.finished())
+                out.write(chunk, 0, deflater.deflate(chunk));
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private byte[] Inflate(Block block) throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            // ReadIndex checked the block lies before the index, so the offset fits an int
+            inflater.setInput(mapped.slice((int) block.offset, block.length));
+            byte[] raw = new byte[block.rawLength];
+            int read = 0;
+            while (read < raw.length && !inflater.finished()) {
+                int n = inflater.inflate(raw, read, raw.length - read);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary()))
+                    throw new IOException("Truncated block at " + block.offset);
+                read += n;
+            }
+            return raw;
+        } catch (DataFormatException e) {
+            throw new IOException(e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static String Hash(String value) {
+        if (value == null)
+            return "-";
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static class Block {
+        final long offset;
+        final int length;
+        final int rawLength;
+
+        Block(long offset, int length, int rawLength) {
+            this.offset = offset;
+            this.length = length;
+            this.rawLength = rawLength;
+        }
+    }
+}
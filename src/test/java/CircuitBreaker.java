@@ -0,0 +1,97 @@
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+import org.testng.SkipException;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Shared by every request of the run. Connection errors, timeouts and 502/503/504 count as
+// failures of the target, anything else the server answers resets the count. After
+// `threshold` consecutive failures the breaker opens and stays open for the rest of the run:
+// every later request is refused with a SkipException naming the failure that opened it,
+// so an outage skips the remaining tests instead of letting each one wait out its timeout.
+public class CircuitBreaker implements Filter {
+    private final int threshold;
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong refused = new AtomicLong();
+    private volatile String openReason;
+
+    // threshold 0 never opens on failures; Open() still does
+    public CircuitBreaker(int threshold) {
+        this.threshold = threshold;
+    }
+
+    @Override
+    public Response filter(FilterableRequestSpecification requestSpec,
+            FilterableResponseSpecification responseSpec, FilterContext ctx) {
+        String request = requestSpec.getMethod() + " " + Endpoint.Of(requestSpec.getURI()).label;
+        if (openReason != null) {
+            refused.incrementAndGet();
+            throw new SkipException("Circuit breaker open: " + openReason);
+        }
+
+        Response response;
+        try {
+            response = ctx.next(requestSpec, responseSpec);
+        } catch (Exception e) {
+            if (IsOutage(e))
+                Failure(request + " failed with " + Cause(e));
+            throw e;
+        }
+
+        int status = response.getStatusCode();
+        if (status == 502 || status == 503 || status == 504)
+            Failure(request + " returned " + status);
+        else
+            consecutiveFailures.set(0);
+        return response;
+    }
+
+    public void Open(String reason) {
+        if (openReason == null)
+            openReason = reason;
+    }
+
+    public boolean open() {
+        return openReason != null;
+    }
+
+    public String openReason() {
+        return openReason;
+    }
+
+    public long failures() {
+        return failures.get();
+    }
+
+    public long refused() {
+        return refused.get();
+    }
+
+    private void Failure(String description) {
+        failures.incrementAndGet();
+        int consecutive = consecutiveFailures.incrementAndGet();
+        if (threshold > 0 && consecutive >= threshold)
+            Open(consecutive + " consecutive failures, last: " + description);
+    }
+
+    static boolean IsOutage(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof IOException)
+                return true;
+        }
+        return false;
+    }
+
+    private static String Cause(Throwable e) {
+        Throwable cause = e;
+        while (!(cause instanceof IOException) && cause.getCause() != null)
+            cause = cause.getCause();
+        return cause.getClass().getSimpleName() + ": " + cause.getMessage();
+    }
+}
@@ -0,0 +1,100 @@
+import io.restassured.config.DecoderConfig;
+import io.restassured.response.Response;
+import org.testng.Assert;
+import org.testng.Reporter;
+import org.testng.SkipException;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+// The list endpoints honor Accept-Encoding: a full page comes back gzip or deflate
+// encoded, smaller on the wire, and decodes to the same JSON as the uncompressed page.
+public class CompressionTest {
+    // servers may leave bodies below this size uncompressed
+    static final int minCompressibleBytes = 1024;
+    // requests in flight at once per encoding in Concurrent_DecodedIndependently
+    static final int concurrentRequests = 8;
+
+    @DataProvider
+    public static Object[][] listEncodings() {
+        return new Object[][]{
+                {Endpoint.PAGES, "gzip"},
+                {Endpoint.PAGES, "deflate"},
+                {Endpoint.COMPONENTS, "gzip"},
+                {Endpoint.COMPONENTS, "deflate"},
+                {Endpoint.INCIDENTS, "gzip"},
+                {Endpoint.INCIDENTS, "deflate"},
+        };
+    }
+
+    @BeforeClass
+    public void RequireDecoders() {
+        if (!Api.contentDecoders().containsAll(
+                List.of(DecoderConfig.ContentDecoder.GZIP, DecoderConfig.ContentDecoder.DEFLATE)))
+            throw new SkipException("Compression is off, encoded bodies could not be decoded");
+        Cassette cassette = Api.cassette();
+        if (cassette != null && !cassette.recording())
+            throw new SkipException("A cassette stores bodies decoded, so replay has no encoding to check");
+    }
+
+    @Test(dataProvider = "listEncodings")
+    public void Encoded_SmallerAndSameBody(Endpoint endpoint, String encoding) {
+        String url = endpoint.Url() + "?page=1&per_page=" + PaginationContract.maxPerPage;
+        Response encoded = Api.freshAccepting(encoding)
+                .when()
+                .get(url)
+                .then()
+                .extract()
+                .response();
+        TrafficRecorder.Traffic traffic = TrafficRecorder.Of(Reporter.getCurrentTestResult());
+        long wireBytes = traffic.wireBodyBytes();
+        long decodedBytes = traffic.bodyBytes();
+
+        Assert.assertEquals(encoded.getStatusCode(), 200);
+        if (encoded.getHeader("Content-Encoding") == null && encoded.asByteArray().length < minCompressibleBytes)
+            throw new SkipException(endpoint.label + " body of " + encoded.asByteArray().length
+                    + " bytes is too small to be compressed");
+        Assert.assertEquals(encoded.getHeader("Content-Encoding"), encoding, url);
+        Assert.assertTrue(wireBytes < decodedBytes,
+                url + " sent " + wireBytes + " " + encoding + " bytes for " + decodedBytes + " decoded");
+
+        Response identity = Api.freshAccepting("none")
+                .when()
+                .get(url)
+                .then()
+                .extract()
+                .response();
+        Assert.assertNull(identity.getHeader("Content-Encoding"), url);
+        BodyComparison.AssertSameBody(encoded, identity);
+    }
+
+    // gzip, deflate and identity requests racing on the one shared client each get their own
+    // body decoded, and nothing else's
+    @Test
+    public void Concurrent_DecodedIndependently() {
+        String url = Endpoint.COMPONENTS.Url() + "?page=1&per_page=" + PaginationContract.maxPerPage;
+        Response identity = Api.freshAccepting("none").when().get(url).then().extract().response();
+        Assert.assertEquals(identity.getStatusCode(), 200);
+
+        List<String> encodings = new ArrayList<>();
+        List<CompletableFuture<Response>> responses = new ArrayList<>();
+        for (int i = 0; i < concurrentRequests; i++) {
+            for (String encoding : List.of("gzip", "deflate", "none")) {
+                encodings.add(encoding);
+                responses.add(Async.Run(() -> Api.freshAccepting(encoding).when().get(url).then().extract().response()));
+            }
+        }
+        for (int i = 0; i < responses.size(); i++) {
+            Response response = Async.Join(responses.get(i));
+            Assert.assertEquals(response.getStatusCode(), 200, encodings.get(i));
+            String expected = encodings.get(i).equals("none") || identity.asByteArray().length < minCompressibleBytes
+                    ? null : encodings.get(i);
+            Assert.assertEquals(response.getHeader("Content-Encoding"), expected, encodings.get(i));
+            BodyComparison.AssertSameBody(response, identity);
+        }
+    }
+}
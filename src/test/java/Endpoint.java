@@ -0,0 +1,75 @@
+import java.net.URI;
+
+// The Instatus routes the suite exercises, as seen relative to the /v1/ base path.
+public enum Endpoint {
+    PAGES("pages"),
+    COMPONENTS("components"),
+    COMPONENT("component"),
+    INCIDENTS("incidents"),
+    INCIDENT("incident"),
+    OTHER("other");
+
+    public final String label;
+
+    Endpoint(String label) {
+        this.label = label;
+    }
+
+    // URL of this route under the given page and entity id; routes without them ignore them
+    public String Url(String pageId, String id) {
+        switch (this) {
+            case PAGES:
+                return Api.baseUrl() + "pages";
+            case COMPONENTS:
+                return Api.baseUrl() + pageId + "/components";
+            case COMPONENT:
+                return Api.baseUrl() + pageId + "/components/" + id;
+            case INCIDENTS:
+                return Api.baseUrl() + pageId + "/incidents";
+            case INCIDENT:
+                return Api.baseUrl() + pageId + "/incidents/" + id;
+            default:
+                throw new IllegalStateException("No URL for " + this);
+        }
+    }
+
+    // URL of this route for the suite's fixture page and entities
+    public String Url() {
+        switch (this) {
+            case PAGES:
+                return Url(null, null);
+            case COMPONENT:
+                return Url(Fixtures.PageId(), Fixtures.ComponentId());
+            case INCIDENT:
+                return Url(Fixtures.PageId(), Fixtures.IncidentId());
+            default:
+                return Url(Fixtures.PageId(), null);
+        }
+    }
+
+    public static Endpoint Of(String url) {
+        String path = URI.create(url).getPath();
+        int base = path.indexOf("/v1/");
+        String[] segments = (base >= 0 ? path.substring(base + 4) : path).split("/");
+
+        if (segments.length == 1 && segments[0].equals("pages"))
+            return PAGES;
+        if (segments.length == 2 && segments[1].equals("components"))
+            return COMPONENTS;
+        if (segments.length == 3 && segments[1].equals("components"))
+            return COMPONENT;
+        if (segments.length == 2 && segments[1].equals("incidents"))
+            return INCIDENTS;
+        if (segments.length == 3 && segments[1].equals("incidents"))
+            return INCIDENT;
+        return OTHER;
+    }
+
+    public static Endpoint Named(String label) {
+        for (Endpoint endpoint : values()) {
+            if (endpoint.label.equals(label))
+                return endpoint;
+        }
+        throw new IllegalArgumentException("Unknown endpoint " + label);
+    }
+}
@@ -0,0 +1,499 @@
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.random.RandomGenerator;
+
+// HTTP/1.1 proxy on the loopback between the suite and its target (live or stand-in) that
+// degrades GET responses per endpoint: added latency, a bandwidth cap, connection resets,
+// bodies cut short and bursts of 5xx or 429. Writes pass through untouched, so seeded
+// fixtures stay intact. The random faults of the n-th GET of a target (path and query) are
+// drawn from a generator seeded with (seed, target, n), so a seed gives the same faults to
+// the same requests whichever order the threads send them in. Bursts hit the last count of
+// every `every` GETs of an endpoint in arrival order, so they only recur at the same
+// requests when those arrive in the same order, as in a single-threaded run.
+//
+//   pages:latency=lognormal:150:0.5, components:reset=0.05, incidents:burst=503x3/20, *:bandwidth=65536
+public class FaultProxy {
+    private static final Set<String> hopByHop = Set.of("connection", "content-length", "expect", "host",
+            "keep-alive", "proxy-connection", "te", "trailer", "transfer-encoding", "upgrade");
+    private static final Duration upstreamTimeout = Duration.ofSeconds(60);
+
+    private final URI upstream;
+    private final Faults faults;
+    private final long seed;
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofMillis(Timeouts.defaultConnectMillis))
+            .build();
+    private final Map<Endpoint, AtomicLong> requests = new EnumMap<>(Endpoint.class);
+    private final Map<String, AtomicLong> requestsByTarget = new ConcurrentHashMap<>();
+    private final Map<Endpoint, Injected> injected = new EnumMap<>(Endpoint.class);
+    private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+    private ServerSocket server;
+    private ExecutorService executor;
+
+    public FaultProxy(String upstreamBaseUrl, Faults faults, long seed) {
+        this.upstream = URI.create(upstreamBaseUrl.endsWith("/") ? upstreamBaseUrl : upstreamBaseUrl + "/");
+        this.faults = faults;
+        this.seed = seed;
+        for (Endpoint endpoint : Endpoint.values()) {
+            requests.put(endpoint, new AtomicLong());
+            injected.put(endpoint, new Injected());
+        }
+    }
+
+    public synchronized String start() throws IOException {
+        server = new ServerSocket(0, 0, InetAddress.getLoopbackAddress());
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        executor.execute(this::Accept);
+        return baseUrl();
+    }
+
+    public synchronized String baseUrl() {
+        return "http://" + server.getInetAddress().getHostAddress() + ":" + server.getLocalPort() + "/v1/";
+    }
+
+    public synchronized void stop() {
+        if (server == null)
+            return;
+        try {
+            server.close();
+        } catch (IOException e) {
+            // already closed
+        }
+        for (Socket connection : connections)
+            Close(connection);
+        executor.shutdownNow();
+        server = null;
+    }
+
+    // one line per endpoint that saw faults
+    public List<String> Report() {
+        List<String> lines = new ArrayList<>();
+        injected.forEach((endpoint, counts) -> {
+            if (counts.any())
+                lines.add(String.format("%-10s %5d GETs: %s", endpoint.label, requests.get(endpoint).get(), counts));
+        });
+        return lines;
+    }
+
+    public Injected injected(Endpoint endpoint) {
+        return injected.get(endpoint);
+    }
+
+    private void Accept() {
+        ServerSocket listening = server;
+        while (!listening.isClosed()) {
+            try {
+                Socket connection = listening.accept();
+                connections.add(connection);
+                executor.execute(() -> Serve(connection));
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    // keep-alive: requests are served in turn until either side closes or a fault cuts it
+    private void Serve(Socket connection) {
+        try (connection) {
+            InputStream in = new BufferedInputStream(connection.getInputStream());
+            OutputStream out = connection.getOutputStream();
+            while (true) {
+                Request request = Request.Read(in);
+                if (request == null || !Handle(connection, request, out))
+                    return;
+            }
+        } catch (IOException e) {
+            // the client went away
+        } finally {
+            connections.remove(connection);
+        }
+    }
+
+    // false once the connection has to be closed
+    private boolean Handle(Socket connection, Request request, OutputStream out) throws IOException {
+        Endpoint endpoint = Endpoint.Of(request.target);
+        boolean read = request.method.equals("GET");
+        Fault fault = read ? faults.For(endpoint) : Fault.none;
+        Injected counts = injected.get(endpoint);
+        // only reads count, so writes do not shift the bursts
+        long n = read ? requests.get(endpoint).incrementAndGet() : 0;
+        long sent = read ? requestsByTarget.computeIfAbsent(request.target, k -> new AtomicLong()).incrementAndGet() : 0;
+        RandomGenerator random = new SplittableRandom(seed ^ (long) request.target.hashCode() << 32 ^ sent);
+
+        if (fault.reset > 0 && random.nextDouble() < fault.reset) {
+            counts.resets.increment();
+            connection.setSoLinger(true, 0);
+            return false;
+        }
+
+        int status;
+        List<String[]> headers = new ArrayList<>();
+        byte[] body;
+        if (fault.burstCount > 0 && (n - 1) % fault.burstEvery >= fault.burstEvery - fault.burstCount) {
+            counts.burst.increment();
+            status = fault.burstStatus;
+            if (status == 429)
+                headers.add(new String[]{"Retry-After", "1"});
+            headers.add(new String[]{"Content-Type", "application/json; charset=utf-8"});
+            body = ("{\"message\":\"Injected " + status + "\"}").getBytes(StandardCharsets.UTF_8);
+        } else {
+            try {
+                HttpResponse<byte[]> response = Forward(request);
+                status = response.statusCode();
+                response.headers().map().forEach((name, values) -> {
+                    if (!hopByHop.contains(name.toLowerCase(Locale.ROOT)))
+                        values.forEach(value -> headers.add(new String[]{name, value}));
+                });
+                body = response.body();
+            } catch (IOException e) {
+                status = 502;
+                headers.add(new String[]{"Content-Type", "application/json; charset=utf-8"});
+                body = ("{\"message\":\"Upstream failed: " + e.getClass().getSimpleName() + "\"}")
+                        .getBytes(StandardCharsets.UTF_8);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+        long delayMillis = fault.latency == null ? 0 : fault.latency.Sample(random);
+        if (delayMillis > 0) {
+            counts.delayed.increment();
+            counts.delayMillis.add(delayMillis);
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(delayMillis));
+        }
+
+        boolean truncate = body.length > 1 && fault.truncate > 0 && random.nextDouble() < fault.truncate;
+        boolean close = truncate || request.close;
+        StringBuilder head = new StringBuilder("HTTP/1.1 ").append(status).append(' ').append(Reason(status)).append("\r\n");
+        for (String[] header : headers)
+            head.append(header[0]).append(": ").append(header[1]).append("\r\n");
+        head.append("Content-Length: ").append(body.length).append("\r\n");
+        head.append("Connection: ").append(close ? "close" : "keep-alive").append("\r\n\r\n");
+        out.write(head.toString().getBytes(StandardCharsets.ISO_8859_1));
+
+        int length = truncate ? body.length / 2 : body.length;
+        if (truncate)
+            counts.truncated.increment();
+        if (fault.bandwidth > 0) {
+            counts.throttled.increment();
+            Throttled(out, body, length, fault.bandwidth);
+        } else {
+            out.write(body, 0, length);
+        }
+        out.flush();
+        return !close;
+    }
+
+    private HttpResponse<byte[]> Forward(Request request) throws IOException, InterruptedException {
+        String relative = request.target.startsWith("/v1/") ? request.target.substring(4) : request.target.substring(1);
+        HttpRequest.Builder forward = HttpRequest.newBuilder(upstream.resolve(relative))
+                .timeout(upstreamTimeout)
+                .method(request.method, request.body.length == 0 ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofByteArray(request.body));
+        for (String[] header : request.headers) {
+            if (!hopByHop.contains(header[0].toLowerCase(Locale.ROOT)))
+                forward.header(header[0], header[1]);
+        }
+        return client.send(forward.build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    // slices of a twentieth of a second, each sent when the cap allows it
+    private static void Throttled(OutputStream out, byte[] body, int length, long bytesPerSecond) throws IOException {
+        int slice = (int) Math.max(1, bytesPerSecond / 20);
+        long start = System.nanoTime();
+        for (int sent = 0; sent < length; ) {
+            long due = start + sent * 1_000_000_000L / bytesPerSecond;
+            long wait = due - System.nanoTime();
+            if (wait > 0)
+                LockSupport.parkNanos(wait);
+            int n = Math.min(slice, length - sent);
+            out.write(body, sent, n);
+            out.flush();
+            sent += n;
+        }
+        long due = start + length * 1_000_000_000L / bytesPerSecond;
+        if (due > System.nanoTime())
+            LockSupport.parkNanos(due - System.nanoTime());
+    }
+
+    private static void Close(Socket connection) {
+        try {
+            connection.close();
+        } catch (IOException e) {
+            // already closed
+        }
+    }
+
+    private static String Reason(int status) {
+        switch (status) {
+            case 200:
+                return "OK";
+            case 401:
+                return "Unauthorized";
+            case 404:
+                return "Not Found";
+            case 405:
+                return "Method Not Allowed";
+            case 422:
+                return "Unprocessable Entity";
+            case 429:
+                return "Too Many Requests";
+            case 500:
+                return "Internal Server Error";
+            case 502:
+                return "Bad Gateway";
+            case 503:
+                return "Service Unavailable";
+            case 504:
+                return "Gateway Timeout";
+            default:
+                return "Status " + status;
+        }
+    }
+
+    private static class Request {
+        final String method;
+        final String target;
+        final List<String[]> headers;
+        final byte[] body;
+        final boolean close;
+
+        private Request(String method, String target, List<String[]> headers, byte[] body, boolean close) {
+            this.method = method;
+            this.target = target;
+            this.headers = headers;
+            this.body = body;
+            this.close = close;
+        }
+
+        // null when the client closed the connection between requests
+        static Request Read(InputStream in) throws IOException {
+            String line = Line(in);
+            if (line == null || line.isEmpty())
+                return null;
+            String[] requestLine = line.split(" ");
+            if (requestLine.length != 3)
+                throw new IOException("Malformed request line: " + line);
+
+            List<String[]> headers = new ArrayList<>();
+            int contentLength = 0;
+            boolean close = requestLine[2].equals("HTTP/1.0");
+            for (String header = Line(in); header != null && !header.isEmpty(); header = Line(in)) {
+                int colon = header.indexOf(':');
+                if (colon <= 0)
+                    continue;
+                String name = header.substring(0, colon).trim();
+                String value = header.substring(colon + 1).trim();
+                headers.add(new String[]{name, value});
+                if (name.equalsIgnoreCase("Content-Length"))
+                    contentLength = Integer.parseInt(value);
+                else if (name.equalsIgnoreCase("Connection"))
+                    close = value.equalsIgnoreCase("close");
+            }
+            byte[] body = in.readNBytes(contentLength);
+            if (body.length < contentLength)
+                throw new IOException("Request body cut short");
+            return new Request(requestLine[0], requestLine[1], headers, body, close);
+        }
+
+        private static String Line(InputStream in) throws IOException {
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            for (int b = in.read(); b != '\n'; b = in.read()) {
+                if (b < 0)
+                    return line.size() == 0 ? null : line.toString(StandardCharsets.ISO_8859_1);
+                if (b != '\r')
+                    line.write(b);
+            }
+            return line.toString(StandardCharsets.ISO_8859_1);
+        }
+    }
+
+    // what the proxy did to the requests of one endpoint
+    public static class Injected {
+        final LongAdder delayed = new LongAdder();
+        final LongAdder delayMillis = new LongAdder();
+        final LongAdder throttled = new LongAdder();
+        final LongAdder resets = new LongAdder();
+        final LongAdder truncated = new LongAdder();
+        final LongAdder burst = new LongAdder();
+
+        public long resets() {
+            return resets.sum();
+        }
+
+        public long truncated() {
+            return truncated.sum();
+        }
+
+        public long burst() {
+            return burst.sum();
+        }
+
+        boolean any() {
+            return delayed.sum() + throttled.sum() + resets.sum() + truncated.sum() + burst.sum() > 0;
+        }
+
+        @Override
+        public String toString() {
+            long delayed = this.delayed.sum();
+            return String.format("%d delayed (avg %dms), %d throttled, %d reset, %d truncated, %d burst responses",
+                    delayed, delayed == 0 ? 0 : delayMillis.sum() / delayed, throttled.sum(), resets.sum(),
+                    truncated.sum(), burst.sum());
+        }
+    }
+
+    // the faults of one endpoint
+    static class Fault {
+        static final Fault none = new Fault(new HashMap<>());
+
+        final Latency latency;
+        final long bandwidth;
+        final double reset;
+        final double truncate;
+        final int burstStatus;
+        final int burstCount;
+        final int burstEvery;
+
+        Fault(Map<String, String> settings) {
+            latency = settings.containsKey("latency") ? Latency.Parse(settings.get("latency")) : null;
+            bandwidth = Long.parseLong(settings.getOrDefault("bandwidth", "0"));
+            reset = Probability(settings.getOrDefault("reset", "0"));
+            truncate = Probability(settings.getOrDefault("truncate", "0"));
+            String burst = settings.get("burst");
+            if (burst == null) {
+                burstStatus = 0;
+                burstCount = 0;
+                burstEvery = 1;
+            } else {
+                String[] parts = burst.split("[x/]");
+                if (parts.length != 3)
+                    throw new IllegalArgumentException("Burst must look like 503x5/100, got " + burst);
+                burstStatus = Integer.parseInt(parts[0]);
+                burstCount = Integer.parseInt(parts[1]);
+                burstEvery = Integer.parseInt(parts[2]);
+                if (burstCount > burstEvery)
+                    throw new IllegalArgumentException("Burst of " + burstCount + " does not fit in " + burstEvery + " requests");
+            }
+        }
+
+        private static double Probability(String value) {
+            double p = Double.parseDouble(value);
+            if (p < 0 || p > 1)
+                throw new IllegalArgumentException("Fault probability must be within 0 and 1, got " + value);
+            return p;
+        }
+    }
+
+    // milliseconds added before a response: 120 (fixed), 50-250 (uniform), exp:120 (mean)
+    // or lognormal:120:0.5 (median and sigma)
+    static class Latency {
+        private final String kind;
+        private final double a;
+        private final double b;
+
+        private Latency(String kind, double a, double b) {
+            this.kind = kind;
+            this.a = a;
+            this.b = b;
+        }
+
+        static Latency Parse(String spec) {
+            String[] parts = spec.split(":");
+            try {
+                if (parts.length == 1 && spec.contains("-")) {
+                    String[] range = spec.split("-");
+                    return new Latency("uniform", Double.parseDouble(range[0]), Double.parseDouble(range[1]));
+                }
+                if (parts.length == 1)
+                    return new Latency("fixed", Double.parseDouble(spec), 0);
+                if (parts.length == 2 && parts[0].equals("exp"))
+                    return new Latency("exp", Double.parseDouble(parts[1]), 0);
+                if (parts.length == 3 && parts[0].equals("lognormal"))
+                    return new Latency("lognormal", Double.parseDouble(parts[1]), Double.parseDouble(parts[2]));
+            } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                // reported below
+            }
+            throw new IllegalArgumentException("Latency must look like 120, 50-250, exp:120 or lognormal:120:0.5, got " + spec);
+        }
+
+        long Sample(RandomGenerator random) {
+            switch (kind) {
+                case "uniform":
+                    return Math.round(a + (b - a) * random.nextDouble());
+                case "exp":
+                    return Math.round(-a * Math.log(1 - random.nextDouble()));
+                case "lognormal":
+                    return Math.round(a * Math.exp(b * random.nextGaussian()));
+                default:
+                    return Math.round(a);
+            }
+        }
+    }
+
+    // faults by endpoint, configured as endpoint:key=value entries where * applies to every
+    // endpoint and an endpoint's own entries override it key by key
+    public static class Faults {
+        private final Map<Endpoint, Fault> byEndpoint = new EnumMap<>(Endpoint.class);
+
+        private Faults(Map<String, Map<String, String>> settings) {
+            for (Endpoint endpoint : Endpoint.values()) {
+                Map<String, String> merged = new HashMap<>(settings.getOrDefault("*", Map.of()));
+                merged.putAll(settings.getOrDefault(endpoint.label, Map.of()));
+                byEndpoint.put(endpoint, new Fault(merged));
+            }
+        }
+
+        public static Faults Parse(String spec) {
+            Map<String, Map<String, String>> settings = new HashMap<>();
+            for (String entry : spec.split(",")) {
+                if (entry.isBlank())
+                    continue;
+                String[] parts = entry.trim().split("[:=]", 2);
+                int eq = parts.length == 2 ? parts[1].indexOf('=') : -1;
+                if (eq <= 0)
+                    throw new IllegalArgumentException("Fault must look like endpoint:key=value, got " + entry);
+                String route = parts[0].trim();
+                if (!route.equals("*"))
+                    Endpoint.Named(route);
+                String key = parts[1].substring(0, eq).trim();
+                if (!Set.of("latency", "bandwidth", "reset", "truncate", "burst").contains(key))
+                    throw new IllegalArgumentException("Unknown fault " + key + " in " + entry);
+                settings.computeIfAbsent(route, k -> new HashMap<>()).put(key, parts[1].substring(eq + 1).trim());
+            }
+            return new Faults(settings);
+        }
+
+        Fault For(Endpoint endpoint) {
+            return byEndpoint.get(endpoint);
+        }
+    }
+}
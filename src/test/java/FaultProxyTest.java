@@ -0,0 +1,190 @@
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Each fault of FaultProxy as a client sees it, in front of a stand-in of its own. Requests go
+// through a plain HttpClient, so the faults never reach the suite's circuit breaker or reports.
+public class FaultProxyTest {
+    private static final String token = "fault-proxy-test";
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private InstatusStandIn standIn;
+
+    @BeforeClass
+    public void StartStandIn() throws IOException {
+        standIn = new InstatusStandIn(token);
+        standIn.start();
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void StopStandIn() {
+        if (standIn != null)
+            standIn.stop();
+    }
+
+    @Test
+    public void Burst_LastRequestsOfEveryWindow() throws Exception {
+        FaultProxy proxy = Start("pages:burst=503x2/4");
+        try {
+            List<Integer> statuses = new ArrayList<>();
+            for (int i = 0; i < 8; i++)
+                statuses.add(Get(proxy.baseUrl() + "pages").statusCode());
+            Assert.assertEquals(statuses, List.of(200, 200, 503, 503, 200, 200, 503, 503));
+            Assert.assertEquals(proxy.injected(Endpoint.PAGES).burst(), 4);
+        } finally {
+            proxy.stop();
+        }
+    }
+
+    @Test
+    public void TooManyRequests_HasRetryAfter() throws Exception {
+        FaultProxy proxy = Start("*:burst=429x1/1");
+        try {
+            HttpResponse<String> response = Get(proxy.baseUrl() + "pages");
+            Assert.assertEquals(response.statusCode(), 429);
+            Assert.assertEquals(response.headers().firstValue("Retry-After").orElse(null), "1");
+        } finally {
+            proxy.stop();
+        }
+    }
+
+    @Test
+    public void Latency_DelaysResponse() throws Exception {
+        FaultProxy proxy = Start("pages:latency=300");
+        try {
+            long start = System.nanoTime();
+            Assert.assertEquals(Get(proxy.baseUrl() + "pages").statusCode(), 200);
+            Assert.assertTrue((System.nanoTime() - start) / 1_000_000 >= 300, "Response was not delayed");
+        } finally {
+            proxy.stop();
+        }
+    }
+
+    @Test
+    public void Bandwidth_CapsThroughputAndKeepsBody() throws Exception {
+        FaultProxy proxy = Start("pages:bandwidth=2048");
+        try {
+            String direct = Get(standIn.baseUrl() + "pages").body();
+            long start = System.nanoTime();
+            String throttled = Get(proxy.baseUrl() + "pages").body();
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            Assert.assertEquals(throttled, direct);
+            Assert.assertTrue(millis >= direct.length() * 1000L / 2048,
+                    direct.length() + " bytes at 2048 bytes/s arrived in " + millis + "ms");
+        } finally {
+            proxy.stop();
+        }
+    }
+
+    @Test
+    public void Reset_FailsRequest() {
+        FaultProxy proxy = Start("pages:reset=1");
+        try {
+            Assert.expectThrows(IOException.class, () -> Get(proxy.baseUrl() + "pages"));
+            // HttpClient retries an idempotent request once on a reset connection
+            Assert.assertTrue(proxy.injected(Endpoint.PAGES).resets() >= 1);
+        } finally {
+            proxy.stop();
+        }
+    }
+
+    @Test
+    public void Truncate_FailsRequest() {
+        FaultProxy proxy = Start("pages:truncate=1");
+        try {
+            Assert.expectThrows(IOException.class, () -> Get(proxy.baseUrl() + "pages"));
+            Assert.assertEquals(proxy.injected(Endpoint.PAGES).truncated(), 1);
+        } finally {
+            proxy.stop();
+        }
+    }
+
+    @Test
+    public void SameSeed_SameFaults() throws Exception {
+        Assert.assertEquals(Truncations(7, 16), Truncations(7, 16));
+        Assert.assertNotEquals(Truncations(7, 16), Truncations(8, 16));
+    }
+
+    @Test
+    public void SameSeed_SameFaultsInAnyOrder() throws Exception {
+        List<String> targets = new ArrayList<>();
+        for (int page = 1; page <= 16; page++)
+            targets.add("pages?page=" + page);
+        List<Boolean> inOrder = Truncations(7, targets);
+        List<String> reversed = new ArrayList<>(targets);
+        Collections.reverse(reversed);
+        List<Boolean> inReverse = Truncations(7, reversed);
+        Collections.reverse(inReverse);
+        Assert.assertTrue(inOrder.contains(true) && inOrder.contains(false), "Seed 7 truncated " + inOrder);
+        Assert.assertEquals(inReverse, inOrder);
+    }
+
+    @Test
+    public void OtherEndpoints_Untouched() throws Exception {
+        FaultProxy proxy = Start("components:reset=1");
+        try {
+            Assert.assertEquals(Get(proxy.baseUrl() + "pages").statusCode(), 200);
+        } finally {
+            proxy.stop();
+        }
+    }
+
+    @Test
+    public void Parse_RejectsUnknownFault() {
+        Assert.expectThrows(IllegalArgumentException.class, () -> FaultProxy.Faults.Parse("pages:jitter=5"));
+        Assert.expectThrows(IllegalArgumentException.class, () -> FaultProxy.Faults.Parse("pages:reset=2"));
+        Assert.expectThrows(IllegalArgumentException.class, () -> FaultProxy.Faults.Parse("pages:burst=503x5"));
+    }
+
+    // which of the first `requests` GETs were cut short with faultSeed `seed`
+    private List<Boolean> Truncations(long seed, int requests) throws InterruptedException {
+        return Truncations(seed, Collections.nCopies(requests, "pages"));
+    }
+
+    // which GETs of `targets`, sent in turn, were cut short with faultSeed `seed`
+    private List<Boolean> Truncations(long seed, List<String> targets) throws InterruptedException {
+        FaultProxy proxy = Start("pages:truncate=0.5", seed);
+        try {
+            List<Boolean> truncated = new ArrayList<>();
+            for (String target : targets) {
+                try {
+                    truncated.add(Get(proxy.baseUrl() + target).statusCode() != 200);
+                } catch (IOException e) {
+                    truncated.add(true);
+                }
+            }
+            return truncated;
+        } finally {
+            proxy.stop();
+        }
+    }
+
+    private FaultProxy Start(String faults) {
+        return Start(faults, 1);
+    }
+
+    private FaultProxy Start(String faults, long seed) {
+        FaultProxy proxy = new FaultProxy(standIn.baseUrl(), FaultProxy.Faults.Parse(faults), seed);
+        try {
+            proxy.start();
+        } catch (IOException e) {
+            throw new IllegalStateException("Fault proxy did not start", e);
+        }
+        return proxy;
+    }
+
+    private HttpResponse<String> Get(String url) throws IOException, InterruptedException {
+        return client.send(HttpRequest.newBuilder(URI.create(url)).header("Authorization", "Bearer " + token).build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,273 @@
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.restassured.http.ContentType;
+import io.restassured.response.Response;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+// Gives the list and pagination tests a dataset of known size: a dedicated page with
+// componentCount components and incidentCount incidents, created before the suite and
+// deleted after it. Instatus has no bulk endpoints, so every entity is its own request;
+// they go out on virtual threads with at most `concurrency` in flight, through the same
+// rate limiter and circuit breaker as the tests. Component and incident bodies are
+// deterministic, so a seeding of a dedicated page recorded to a cassette replays; a page
+// created for the run gets a subdomain of its own each time.
+//
+// Entities created or deleted later through Create and Delete are tracked too, so
+// Teardown removes whatever is left.
+public class FixtureSeeder {
+    static final String namePrefix = "QA seed";
+    // fixed, so bodies and cassette keys do not change from run to run
+    static final String started = "2024-01-01T00:00:00.000Z";
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private final int componentCount;
+    private final int incidentCount;
+    private final Semaphore inFlight;
+    private final int concurrency;
+    private final Set<String> components = ConcurrentHashMap.newKeySet();
+    private final Set<String> incidents = ConcurrentHashMap.newKeySet();
+    private String pageId;
+    private boolean ownsPage;
+    private String[] componentIds = new String[0];
+    private String[] incidentIds = new String[0];
+
+    public FixtureSeeder(int componentCount, int incidentCount, int concurrency) {
+        this.componentCount = componentCount;
+        this.incidentCount = incidentCount;
+        this.concurrency = Math.max(1, concurrency);
+        this.inFlight = new Semaphore(this.concurrency);
+    }
+
+    // seeds dedicatedPageId, or a page created for the run when it is empty; the entities
+    // created before a failure are kept for Teardown
+    public void Seed(String dedicatedPageId) {
+        if (dedicatedPageId.isBlank()) {
+            // subdomains are unique across Instatus, so concurrent and leftover runs must not share one
+            String subdomain = "qa-seed-" + UUID.randomUUID().toString().substring(0, 8);
+            pageId = Post(Endpoint.PAGES.Url(), Body("name", namePrefix + " page", "subdomain", subdomain));
+            ownsPage = true;
+        } else {
+            pageId = dedicatedPageId;
+        }
+
+        componentIds = new String[componentCount];
+        List<String> failures = CreateAll(componentIds, i -> Create(Endpoint.COMPONENTS, i));
+        incidentIds = new String[incidentCount];
+        failures.addAll(CreateAll(incidentIds, i -> Create(Endpoint.INCIDENTS, i)));
+
+        if (!failures.isEmpty())
+            throw new IllegalStateException(failures.size() + " of " + (componentCount + incidentCount)
+                    + " seed requests failed, first: " + failures.get(0));
+    }
+
+    // entity number n of COMPONENTS or INCIDENTS, created on the seeded page
+    public String Create(Endpoint list, int n) {
+        String id = Post(list.Url(pageId, null), list == Endpoint.COMPONENTS ? ComponentBody(n) : IncidentBody(n));
+        Tracked(list).add(id);
+        return id;
+    }
+
+    // renames the entity; an incident also changes status
+    public void Update(Endpoint list, String id, int revision) {
+        Map<String, Object> body = Body("name", namePrefix + " " + list.label + " revision " + revision);
+        if (list == Endpoint.INCIDENTS)
+            body.put("status", revision % 2 == 0 ? "MONITORING" : "RESOLVED");
+        Send("PUT", Detail(list).Url(pageId, id), body);
+    }
+
+    // untracked before the request goes out, so every tracked id exists on the server
+    public void Delete(Endpoint list, String id) {
+        if (!Tracked(list).remove(id))
+            return;
+        try {
+            Send("DELETE", Detail(list).Url(pageId, id), null);
+        } catch (RuntimeException e) {
+            Tracked(list).add(id);
+            throw e;
+        }
+    }
+
+    // ids of COMPONENTS or INCIDENTS that exist on the seeded page
+    public Set<String> Ids(Endpoint list) {
+        return Set.copyOf(Tracked(list));
+    }
+
+    // incidents first, as they refer to the components; then the page if Seed created it.
+    // Returns the deletes that failed.
+    public List<String> Teardown() {
+        List<String> failures = new ArrayList<>();
+        if (pageId == null)
+            return failures;
+        failures.addAll(DeleteAll(Endpoint.INCIDENTS));
+        failures.addAll(DeleteAll(Endpoint.COMPONENTS));
+        if (ownsPage) {
+            try {
+                Send("DELETE", Api.baseUrl() + pageId, null);
+            } catch (RuntimeException e) {
+                failures.add(e.getMessage());
+            }
+        }
+        return failures;
+    }
+
+    public String pageId() {
+        return pageId;
+    }
+
+    public boolean ownsPage() {
+        return ownsPage;
+    }
+
+    // null when none was seeded
+    public String firstComponentId() {
+        return componentIds.length > 0 ? componentIds[0] : null;
+    }
+
+    public String firstIncidentId() {
+        return incidentIds.length > 0 ? incidentIds[0] : null;
+    }
+
+    public int seeded() {
+        return components.size() + incidents.size();
+    }
+
+    public int concurrency() {
+        return concurrency;
+    }
+
+    private Map<String, Object> ComponentBody(int n) {
+        return Body(
+                "name", namePrefix + " component " + n,
+                "description", "Created by the QA suite",
+                "status", "OPERATIONAL",
+                "order", n,
+                "showUptime", true,
+                "grouped", false);
+    }
+
+    private Map<String, Object> IncidentBody(int n) {
+        String affected = firstComponentId();
+        return Body(
+                "name", namePrefix + " incident " + n,
+                "message", "Created by the QA suite",
+                "components", affected == null ? List.of() : List.of(affected),
+                "started", started,
+                "status", "RESOLVED",
+                "notify", false,
+                "statuses", affected == null ? List.of() : List.of(Body("id", affected, "status", "OPERATIONAL")));
+    }
+
+    // each slot of ids is written by its own task, and read only after every task is joined
+    private List<String> CreateAll(String[] ids, IntFunction<String> create) {
+        List<CompletableFuture<String>> futures = new ArrayList<>();
+        for (int i = 0; i < ids.length; i++) {
+            int index = i;
+            futures.add(Async.Run(() -> Limited(() -> create.apply(index))));
+        }
+        List<String> failures = new ArrayList<>();
+        for (int i = 0; i < ids.length; i++) {
+            try {
+                ids[i] = Async.Join(futures.get(i));
+            } catch (RuntimeException | AssertionError e) {
+                failures.add(e.getMessage());
+            }
+        }
+        return failures;
+    }
+
+    private List<String> DeleteAll(Endpoint list) {
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (String id : Ids(list)) {
+            futures.add(Async.Run(() -> Limited(() -> {
+                Delete(list, id);
+                return null;
+            })));
+        }
+        List<String> failures = new ArrayList<>();
+        for (CompletableFuture<Void> future : futures) {
+            try {
+                Async.Join(future);
+            } catch (RuntimeException | AssertionError e) {
+                failures.add(e.getMessage());
+            }
+        }
+        return failures;
+    }
+
+    private <T> T Limited(Supplier<T> request) {
+        inFlight.acquireUninterruptibly();
+        try {
+            return request.get();
+        } finally {
+            inFlight.release();
+        }
+    }
+
+    private Set<String> Tracked(Endpoint list) {
+        if (list == Endpoint.COMPONENTS)
+            return components;
+        if (list == Endpoint.INCIDENTS)
+            return incidents;
+        throw new IllegalArgumentException("Only components and incidents are seeded, not " + list.label);
+    }
+
+    private static Endpoint Detail(Endpoint list) {
+        return list == Endpoint.COMPONENTS ? Endpoint.COMPONENT : Endpoint.INCIDENT;
+    }
+
+    // the id of the created entity; a 2xx without one fails, as nothing could delete it
+    private static String Post(String url, Map<String, Object> body) {
+        Response response = Send("POST", url, body);
+        String id;
+        try {
+            id = mapper.readTree(response.asByteArray()).path("id").asText();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (id.isBlank())
+            throw new IllegalStateException("POST " + url + " returned " + response.getStatusCode()
+                    + " without an id: " + response.asString());
+        return id;
+    }
+
+    private static Response Send(String method, String url, Map<String, Object> body) {
+        String json;
+        try {
+            json = body == null ? null : mapper.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        Response response = (json == null ? Api.fresh() : Api.fresh().contentType(ContentType.JSON).body(json))
+                .when()
+                .request(method, url)
+                .then()
+                .extract()
+                .response();
+        if (response.getStatusCode() / 100 != 2)
+            throw new IllegalStateException(method + " " + url + " returned " + response.getStatusCode()
+                    + ": " + response.asString());
+        return response;
+    }
+
+    private static Map<String, Object> Body(Object... keysAndValues) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        for (int i = 0; i < keysAndValues.length; i += 2)
+            body.put((String) keysAndValues[i], keysAndValues[i + 1]);
+        return body;
+    }
+}
@@ -0,0 +1,166 @@
+import io.restassured.response.Response;
+import org.testng.SkipException;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+// Suite-wide registry of the ids the tests bootstrap from. Each id is fetched at
+// most once per run and then shared by every class and thread that asks for it.
+// A fixtures file carries the ids from one run to others against the same target, such
+// as the other shards of a sharded run.
+public class Fixtures {
+    private static final String targetKey = "target";
+
+    private static final Map<String, String> ids = new ConcurrentHashMap<>();
+    private static final AtomicInteger requests = new AtomicInteger();
+    private static final AtomicInteger lookups = new AtomicInteger();
+
+    // The public lookups stand for the bootstrap GETs the test classes made before the
+    // registry existed: one page per class and one entity per test that needed an id.
+    // URLs built from the ids (Endpoint.Url) go through the uncounted ones below.
+    public static String pageId() {
+        lookups.incrementAndGet();
+        return PageId();
+    }
+
+    public static String componentId() {
+        lookups.incrementAndGet();
+        return ComponentId();
+    }
+
+    public static String incidentId() {
+        lookups.incrementAndGet();
+        return IncidentId();
+    }
+
+    public static void Resolve() {
+        PageId();
+        ComponentId();
+        IncidentId();
+    }
+
+    // forgets the ids and counts of an earlier run in this JVM, whose target may be gone
+    public static void Reset() {
+        ids.clear();
+        requests.set(0);
+        lookups.set(0);
+    }
+
+    // ids known up front, such as those of a seeded page; nulls are left to Resolve
+    public static void Use(String pageId, String componentId, String incidentId) {
+        if (pageId != null)
+            ids.put("pageId", pageId);
+        if (componentId != null)
+            ids.put("componentId", componentId);
+        if (incidentId != null)
+            ids.put("incidentId", incidentId);
+    }
+
+    // false when the file is missing. A file written for another target is an error: the ids
+    // mean nothing there, and resolving them again would overwrite the ids other runs share.
+    public static boolean Load(Path file, String target) throws IOException {
+        if (!Files.exists(file))
+            return false;
+        Properties saved = new Properties();
+        try (Reader in = Files.newBufferedReader(file)) {
+            saved.load(in);
+        }
+        String savedTarget = saved.getProperty(targetKey);
+        if (!target.equals(savedTarget))
+            throw new IllegalStateException(file + " holds fixture ids of " + savedTarget + ", not of " + target
+                    + "; delete it or point fixturesFile elsewhere");
+        for (String key : saved.stringPropertyNames()) {
+            if (!key.equals(targetKey))
+                ids.put(key, saved.getProperty(key));
+        }
+        return true;
+    }
+
+    // written next to the file and moved over it, so a shard never reads half a file
+    public static void Save(Path file, String target) throws IOException {
+        Properties saved = new Properties();
+        saved.setProperty(targetKey, target);
+        ids.forEach(saved::setProperty);
+
+        Path absolute = file.toAbsolutePath();
+        Files.createDirectories(absolute.getParent());
+        Path temp = Files.createTempFile(absolute.getParent(), absolute.getFileName().toString(), ".tmp");
+        try (Writer out = Files.newBufferedWriter(temp)) {
+            saved.store(out, "Fixture ids of " + target);
+        }
+        Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public static int lookups() {
+        return lookups.get();
+    }
+
+    public static int requests() {
+        return requests.get();
+    }
+
+    // every counted lookup used to be its own GET before the registry existed
+    public static int savedRequests() {
+        return lookups.get() - requests.get();
+    }
+
+    static String PageId() {
+        return Lookup("pageId", () -> FirstId(Endpoint.PAGES.Url() + "?page=1",
+                "Invalid page id not found. Skipping test suite."));
+    }
+
+    static String ComponentId() {
+        return Lookup("componentId", () -> FirstId(Endpoint.COMPONENTS.Url(PageId(), null),
+                "Cannot obtain component id. Skipping test."));
+    }
+
+    static String IncidentId() {
+        return Lookup("incidentId", () -> FirstId(Endpoint.INCIDENTS.Url(PageId(), null),
+                "Cannot obtain incident id. Skipping test."));
+    }
+
+    private static String Lookup(String key, Supplier<String> resolver) {
+        String id = ids.get(key);
+        if (id != null)
+            return id;
+
+        synchronized (Fixtures.class) {
+            id = ids.get(key);
+            if (id == null) {
+                id = resolver.get();
+                ids.put(key, id);
+            }
+            return id;
+        }
+    }
+
+    private static String FirstId(String url, String skipReason) {
+        requests.incrementAndGet();
+        Response response = Api.given()
+                .when()
+                .get(url)
+                .then()
+                .extract()
+                .response();
+
+        if (response.getStatusCode() != 200)
+            throw new SkipException("Response not valid");
+
+        List<String> idList = response.jsonPath().getList("id");
+
+        if (idList.isEmpty())
+            throw new SkipException(skipReason);
+
+        return idList.get(0);
+    }
+}
@@ -0,0 +1,422 @@
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Pattern;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+// In-process stand-in for the parts of the Instatus v1 API the suite covers.
+// Mirrors the live behaviour the tests assert on: bearer 401s, 422 on bad paging
+// params, per_page capped at 100, and 500 for unknown (or upper-cased) ids.
+// Pages, components and incidents can be created, updated and deleted, as FixtureSeeder does.
+// Bodies from minCompressedBytes up are gzip or deflate encoded when the client accepts it.
+public class InstatusStandIn {
+    static final int defaultPerPage = 50;
+    static final int maxPerPage = 100;
+    static final int minCompressedBytes = 256;
+
+    private static final Pattern positiveInt = Pattern.compile("[1-9][0-9]{0,8}");
+    private static final String[] pageStatuses = {"UP", "HASISSUES", "ONEDEGRADEDPERFORMANCE"};
+    private static final String[] componentStatuses = {
+            "OPERATIONAL", "UNDERMAINTENANCE", "DEGRADEDPERFORMANCE", "PARTIALOUTAGE", "MAJOROUTAGE"
+    };
+    private static final String[] incidentStatuses = {"INVESTIGATING", "IDENTIFIED", "MONITORING", "RESOLVED"};
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private final String bearerToken;
+    private final Random random = new Random(42);
+    private final List<Map<String, Object>> pages = new ArrayList<>();
+    private final Map<String, List<Map<String, Object>>> components = new HashMap<>();
+    private final Map<String, List<Map<String, Object>>> incidents = new HashMap<>();
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public InstatusStandIn(String bearerToken) {
+        this.bearerToken = bearerToken;
+        Seed(3, 12, 7);
+    }
+
+    public synchronized String start() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        executor = Executors.newCachedThreadPool();
+        server.setExecutor(executor);
+        server.createContext("/v1/", this::Handle);
+        server.start();
+        return baseUrl();
+    }
+
+    public synchronized String baseUrl() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + "/v1/";
+    }
+
+    public synchronized void stop() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdownNow();
+            server = null;
+        }
+    }
+
+    private void Seed(int pageCount, int componentCount, int incidentCount) {
+        for (int p = 0; p < pageCount; p++) {
+            String pageId = NewId();
+            Map<String, Object> page = NewPage(pageId, "Stand-in page " + p, "standin-" + p);
+            page.put("status", pageStatuses[p % pageStatuses.length]);
+            pages.add(page);
+
+            List<Map<String, Object>> pageComponents = new ArrayList<>();
+            for (int c = 0; c < Math.max(1, componentCount >> p); c++) {
+                Map<String, Object> component = new LinkedHashMap<>();
+                component.put("id", NewId());
+                component.put("name", "Component " + c);
+                component.put("description", null);
+                component.put("status", componentStatuses[c % componentStatuses.length]);
+                component.put("showUptime", true);
+                component.put("order", c);
+                component.put("grouped", false);
+                pageComponents.add(component);
+            }
+            components.put(pageId, pageComponents);
+
+            List<Map<String, Object>> pageIncidents = new ArrayList<>();
+            for (int i = 0; i < Math.max(1, incidentCount >> p); i++) {
+                Map<String, Object> incident = new LinkedHashMap<>();
+                incident.put("id", NewId());
+                incident.put("name", "Incident " + i);
+                incident.put("status", incidentStatuses[i % incidentStatuses.length]);
+                incident.put("impact", componentStatuses[(i + 2) % componentStatuses.length]);
+                incident.put("started", "2023-01-0" + (1 + i % 9) + "T10:00:00.000Z");
+                incident.put("resolved", null);
+                pageIncidents.add(incident);
+            }
+            incidents.put(pageId, pageIncidents);
+        }
+    }
+
+    // cuid-style ids, lower-case only, so upper-casing one never matches
+    private String NewId() {
+        StringBuilder id = new StringBuilder("c");
+        while (id.length() < 25)
+            id.append(Character.forDigit(random.nextInt(36), 36));
+        return id.toString();
+    }
+
+    private void Handle(HttpExchange exchange) throws IOException {
+        try {
+            String auth = exchange.getRequestHeaders().getFirst("Authorization");
+            if (auth == null || !auth.equals("Bearer " + bearerToken)) {
+                Send(exchange, 401, "{\"message\":\"Unauthorized\"}");
+                return;
+            }
+
+            URI uri = exchange.getRequestURI();
+            String[] path = uri.getPath().substring("/v1/".length()).split("/");
+            Map<String, String> query = Query(uri.getRawQuery());
+
+            String method = exchange.getRequestMethod();
+            if (method.equals("POST") || method.equals("PUT") || method.equals("DELETE")) {
+                Write(exchange, method, path);
+            } else if (!method.equals("GET")) {
+                Send(exchange, 405, "{\"message\":\"Method not allowed\"}");
+            } else if (path.length == 1 && path[0].equals("pages")) {
+                SendList(exchange, pages, query);
+            } else if (path.length >= 2 && (path[1].equals("components") || path[1].equals("incidents"))) {
+                List<Map<String, Object>> list;
+                synchronized (this) {
+                    list = (path[1].equals("components") ? components : incidents).get(path[0]);
+                }
+                if (list == null)
+                    Send(exchange, 404, "{\"message\":\"Page not found\"}");
+                else if (path.length == 2)
+                    SendList(exchange, list, query);
+                else if (path.length == 3)
+                    SendDetail(exchange, list, path[2]);
+                else
+                    Send(exchange, 404, "{\"message\":\"Not found\"}");
+            } else {
+                Send(exchange, 404, "{\"message\":\"Not found\"}");
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    // POST pages, POST {page}/components|incidents, PUT and DELETE {page}/components|incidents/{id} and
+    // DELETE {page}; the entity written is sent back, deleting a page deletes its components and incidents
+    private void Write(HttpExchange exchange, String method, String[] path) throws IOException {
+        Map<String, Object> body = new HashMap<>();
+        if (!method.equals("DELETE")) {
+            try {
+                body = mapper.readValue(exchange.getRequestBody(), new TypeReference<Map<String, Object>>() {});
+            } catch (IOException e) {
+                Send(exchange, 400, "{\"message\":\"Invalid JSON body\"}");
+                return;
+            }
+            if (method.equals("POST") && !(body.get("name") instanceof String)) {
+                Send(exchange, 422, "{\"message\":\"name is required\"}");
+                return;
+            }
+        }
+
+        StringBuilder out = new StringBuilder();
+        int status = 200;
+        synchronized (this) {
+            if (method.equals("POST") && path.length == 1 && path[0].equals("pages")) {
+                Map<String, Object> page = NewPage(NewId(), (String) body.get("name"),
+                        (String) body.getOrDefault("subdomain", "standin-" + pages.size()));
+                pages.add(page);
+                components.put((String) page.get("id"), new ArrayList<>());
+                incidents.put((String) page.get("id"), new ArrayList<>());
+                Json(out, page);
+            } else if (method.equals("DELETE") && path.length == 1 && components.containsKey(path[0])) {
+                components.remove(path[0]);
+                incidents.remove(path[0]);
+                Map<String, Object> page = Remove(pages, path[0]);
+                Json(out, page);
+            } else if (path.length >= 2 && (path[1].equals("components") || path[1].equals("incidents"))) {
+                boolean isComponent = path[1].equals("components");
+                List<Map<String, Object>> list = (isComponent ? components : incidents).get(path[0]);
+                if (list == null) {
+                    status = 404;
+                    out.append("{\"message\":\"Page not found\"}");
+                } else if (method.equals("POST") && path.length == 2) {
+                    // incidents are listed newest first, components in the order they were added
+                    Map<String, Object> created = isComponent ? NewComponent(body, list.size()) : NewIncident(body);
+                    list.add(isComponent ? list.size() : 0, created);
+                    Json(out, created);
+                } else if (method.equals("PUT") && path.length == 3) {
+                    Map<String, Object> updated = Find(list, path[2]);
+                    if (updated == null) {
+                        status = 500;
+                        out.append("{\"message\":\"Internal server error\"}");
+                    } else {
+                        for (Map.Entry<String, Object> field : body.entrySet()) {
+                            if (updated.containsKey(field.getKey()) && !field.getKey().equals("id"))
+                                updated.put(field.getKey(), field.getValue());
+                        }
+                        Json(out, updated);
+                    }
+                } else if (method.equals("DELETE") && path.length == 3) {
+                    Map<String, Object> deleted = Remove(list, path[2]);
+                    if (deleted == null) {
+                        status = 500;
+                        out.append("{\"message\":\"Internal server error\"}");
+                    } else {
+                        Json(out, deleted);
+                    }
+                } else {
+                    status = 405;
+                    out.append("{\"message\":\"Method not allowed\"}");
+                }
+            } else {
+                status = 404;
+                out.append("{\"message\":\"Not found\"}");
+            }
+        }
+        Send(exchange, status, out.toString());
+    }
+
+    private Map<String, Object> NewPage(String id, String name, String subdomain) {
+        Map<String, Object> page = new LinkedHashMap<>();
+        page.put("id", id);
+        page.put("subdomain", subdomain);
+        page.put("name", name);
+        page.put("workspaceId", NewId());
+        page.put("status", pageStatuses[0]);
+        page.put("language", "en");
+        page.put("websiteUrl", null);
+        return page;
+    }
+
+    private Map<String, Object> NewComponent(Map<String, Object> body, int order) {
+        Map<String, Object> component = new LinkedHashMap<>();
+        component.put("id", NewId());
+        component.put("name", body.get("name"));
+        component.put("description", body.get("description"));
+        component.put("status", body.getOrDefault("status", componentStatuses[0]));
+        component.put("showUptime", body.getOrDefault("showUptime", true));
+        component.put("order", body.getOrDefault("order", order));
+        component.put("grouped", body.getOrDefault("grouped", false));
+        return component;
+    }
+
+    private Map<String, Object> NewIncident(Map<String, Object> body) {
+        Map<String, Object> incident = new LinkedHashMap<>();
+        incident.put("id", NewId());
+        incident.put("name", body.get("name"));
+        incident.put("status", body.getOrDefault("status", incidentStatuses[0]));
+        incident.put("impact", null);
+        incident.put("started", body.get("started"));
+        incident.put("resolved", null);
+        return incident;
+    }
+
+    private static Map<String, Object> Find(List<Map<String, Object>> list, String id) {
+        for (Map<String, Object> item : list) {
+            if (item.get("id").equals(id))
+                return item;
+        }
+        return null;
+    }
+
+    private static Map<String, Object> Remove(List<Map<String, Object>> list, String id) {
+        for (int i = 0; i < list.size(); i++) {
+            if (list.get(i).get("id").equals(id))
+                return list.remove(i);
+        }
+        return null;
+    }
+
+    private void SendList(HttpExchange exchange, List<Map<String, Object>> list, Map<String, String> query) throws IOException {
+        String page = query.getOrDefault("page", "1");
+        String perPage = query.getOrDefault("per_page", String.valueOf(defaultPerPage));
+        if (!positiveInt.matcher(page).matches() || !positiveInt.matcher(perPage).matches()) {
+            Send(exchange, 422, "{\"message\":\"Invalid pagination parameters\"}");
+            return;
+        }
+
+        int size = Math.min(Integer.parseInt(perPage), maxPerPage);
+        long from = (Long.parseLong(page) - 1) * size;
+        StringBuilder body = new StringBuilder("[");
+        synchronized (this) {
+            for (long i = from; i < Math.min(from + size, list.size()); i++) {
+                if (i > from)
+                    body.append(',');
+                Json(body, list.get((int) i));
+            }
+        }
+        Send(exchange, 200, body.append(']').toString());
+    }
+
+    private void SendDetail(HttpExchange exchange, List<Map<String, Object>> list, String id) throws IOException {
+        StringBuilder body = new StringBuilder();
+        synchronized (this) {
+            Map<String, Object> item = Find(list, id);
+            if (item != null)
+                Json(body, item);
+        }
+        if (body.length() == 0)
+            Send(exchange, 500, "{\"message\":\"Internal server error\"}");
+        else
+            Send(exchange, 200, body.toString());
+    }
+
+    private static void Send(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.getResponseHeaders().set("Vary", "Accept-Encoding");
+        String encoding = bytes.length < minCompressedBytes ? null
+                : Encoding(exchange.getRequestHeaders().getFirst("Accept-Encoding"));
+        if (encoding != null) {
+            ByteArrayOutputStream encoded = new ByteArrayOutputStream(bytes.length / 4);
+            try (OutputStream out = encoding.equals("gzip") ? new GZIPOutputStream(encoded)
+                    : new DeflaterOutputStream(encoded)) {
+                out.write(bytes);
+            }
+            bytes = encoded.toByteArray();
+            exchange.getResponseHeaders().set("Content-Encoding", encoding);
+        }
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    // gzip over deflate, either only if accepted with a non-zero q; null sends the body as is
+    private static String Encoding(String acceptEncoding) {
+        if (acceptEncoding == null)
+            return null;
+        double gzip = 0;
+        double deflate = 0;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            double q = 1;
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim();
+                if (param.startsWith("q="))
+                    q = Double.parseDouble(param.substring(2));
+            }
+            String name = parts[0].trim().toLowerCase();
+            if (name.equals("gzip") || name.equals("*"))
+                gzip = Math.max(gzip, q);
+            if (name.equals("deflate") || name.equals("*"))
+                deflate = Math.max(deflate, q);
+        }
+        if (gzip > 0 && gzip >= deflate)
+            return "gzip";
+        return deflate > 0 ? "deflate" : null;
+    }
+
+    private static Map<String, String> Query(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null)
+            return query;
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0)
+                query.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+        }
+        return query;
+    }
+
+    private static void Json(StringBuilder out, Object value) {
+        if (value == null) {
+            out.append("null");
+        } else if (value instanceof String) {
+            out.append('"');
+            for (char ch : ((String) value).toCharArray()) {
+                if (ch == '"' || ch == '\\')
+                    out.append('\\').append(ch);
+                else if (ch < 0x20)
+                    out.append(String.format("\\u%04x", (int) ch));
+                else
+                    out.append(ch);
+            }
+            out.append('"');
+        } else if (value instanceof Map) {
+            out.append('{');
+            boolean first = true;
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                if (!first)
+                    out.append(',');
+                first = false;
+                Json(out, entry.getKey().toString());
+                out.append(':');
+                Json(out, entry.getValue());
+            }
+            out.append('}');
+        } else if (value instanceof List) {
+            out.append('[');
+            boolean first = true;
+            for (Object element : (List<?>) value) {
+                if (!first)
+                    out.append(',');
+                first = false;
+                Json(out, element);
+            }
+            out.append(']');
+        } else {
+            out.append(value);
+        }
+    }
+}
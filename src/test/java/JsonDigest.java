@@ -0,0 +1,81 @@
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Canonical SHA-256 of a JSON document, computed from the token stream. Object members
+// are hashed as (key, value) pairs and combined in sorted order, so two bodies that
+// differ only in key order or number formatting digest the same. Array order counts.
+public class JsonDigest {
+    private static final JsonFactory factory = new JsonFactory();
+
+    public static byte[] Of(InputStream body) {
+        try (JsonParser parser = factory.createParser(body)) {
+            JsonToken token = parser.nextToken();
+            return token == null ? Hash("empty") : Value(parser, token);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot digest malformed JSON", e);
+        }
+    }
+
+    private static byte[] Value(JsonParser parser, JsonToken token) throws IOException {
+        switch (token) {
+            case START_ARRAY: {
+                MessageDigest digest = Sha256();
+                digest.update((byte) '[');
+                JsonToken next;
+                while ((next = parser.nextToken()) != JsonToken.END_ARRAY)
+                    digest.update(Value(parser, next));
+                return digest.digest();
+            }
+            case START_OBJECT: {
+                List<byte[]> members = new ArrayList<>();
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    MessageDigest member = Sha256();
+                    member.update(parser.getCurrentName().getBytes(StandardCharsets.UTF_8));
+                    member.update((byte) 0);
+                    member.update(Value(parser, parser.nextToken()));
+                    members.add(member.digest());
+                }
+                members.sort(Arrays::compare);
+                MessageDigest digest = Sha256();
+                digest.update((byte) '{');
+                for (byte[] member : members)
+                    digest.update(member);
+                return digest.digest();
+            }
+            case VALUE_STRING:
+                return Hash("s:" + parser.getText());
+            case VALUE_NUMBER_INT:
+            case VALUE_NUMBER_FLOAT:
+                return Hash("n:" + parser.getDecimalValue().stripTrailingZeros().toPlainString());
+            case VALUE_TRUE:
+                return Hash("true");
+            case VALUE_FALSE:
+                return Hash("false");
+            default:
+                return Hash("null");
+        }
+    }
+
+    private static byte[] Hash(String text) {
+        return Sha256().digest(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static MessageDigest Sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,304 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+// Latency samples of past runs, one record appended per run, and the check of a run's
+// samples against the runs before it. Each endpoint of the current run is compared with
+// each of the last `window` runs against the same target on its own, with a one-sided
+// Mann-Whitney U test, which needs no assumption about the shape of the latency
+// distribution. Samples of one run share its network and server load, so runs are not
+// pooled: an endpoint got slower only when it is slower than every one of them, i.e. the
+// largest of the p-values is below alpha. A baseline run as slow as this one, as happens
+// when latency drifts from run to run, clears it.
+//
+//   "IQAL" version | run... ; run: length, epochMillis, target, endpoints,
+//                                  (label, count, sorted micros as varint deltas)...
+//
+// A run record that was cut short, e.g. by a killed JVM, is ignored, and the next Append
+// writes over it.
+public class LatencyBaseline {
+    static final int minSamples = 8;
+
+    private static final int magic = 0x4951414C;
+    private static final int version = 1;
+
+    private final Path path;
+    private final List<Run> runs;
+
+    private LatencyBaseline(Path path, List<Run> runs) {
+        this.path = path;
+        this.runs = runs;
+    }
+
+    // a missing file is an empty baseline
+    public static LatencyBaseline Load(Path path) throws IOException {
+        List<Run> runs = new ArrayList<>();
+        if (!Files.exists(path))
+            return new LatencyBaseline(path, runs);
+
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(path))) {
+            if (in.readInt() != magic)
+                throw new IOException(path + " is not a latency baseline");
+            if (in.readInt() != version)
+                throw new IOException(path + " has an unsupported latency baseline version");
+            while (true) {
+                int length;
+                try {
+                    length = in.readInt();
+                } catch (EOFException e) {
+                    break;
+                }
+                byte[] record = in.readNBytes(length);
+                if (record.length < length)
+                    break;
+                runs.add(Run.Read(new DataInputStream(new ByteArrayInputStream(record))));
+            }
+        }
+        return new LatencyBaseline(path, runs);
+    }
+
+    public int runs() {
+        return runs.size();
+    }
+
+    // a record a killed run left half written is cut off first, or it would swallow this one
+    public void Append(String target, Map<Endpoint, long[]> samples) throws IOException {
+        Run run = new Run(System.currentTimeMillis(), target, new EnumMap<>(samples));
+        byte[] record = run.Write();
+
+        if (path.getParent() != null)
+            Files.createDirectories(path.getParent());
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            long end = CompleteLength(channel);
+            if (channel.size() > end)
+                channel.truncate(end);
+            ByteBuffer buffer = ByteBuffer.allocate(3 * Integer.BYTES + record.length);
+            if (end == 0)
+                buffer.putInt(magic).putInt(version);
+            buffer.putInt(record.length).put(record).flip();
+            channel.position(end);
+            while (buffer.hasRemaining())
+                channel.write(buffer);
+        }
+        runs.add(run);
+    }
+
+    // runs with fewer than minSamples samples of an endpoint are left out of its baseline
+    public List<Comparison> Compare(String target, Map<Endpoint, long[]> current, int window, double alpha) {
+        List<Comparison> comparisons = new ArrayList<>();
+        for (Map.Entry<Endpoint, long[]> entry : new EnumMap<>(current).entrySet()) {
+            Endpoint endpoint = entry.getKey();
+            List<long[]> previous = new ArrayList<>();
+            for (int i = runs.size() - 1; i >= 0 && previous.size() < window; i--) {
+                Run run = runs.get(i);
+                long[] samples = run.samples.get(endpoint);
+                if (run.target.equals(target) && samples != null && samples.length >= minSamples)
+                    previous.add(samples);
+            }
+
+            long[] samples = entry.getValue();
+            double p = Double.NaN;
+            if (samples.length >= minSamples && !previous.isEmpty()) {
+                p = 0;
+                for (long[] run : previous)
+                    p = Math.max(p, SlowerPValue(samples, run));
+            }
+            comparisons.add(new Comparison(endpoint, samples, previous, p, alpha));
+        }
+        return comparisons;
+    }
+
+    // one-sided Mann-Whitney U: probability of ranks this high for `current` if both
+    // samples came from the same distribution; normal approximation with tie correction
+    static double SlowerPValue(long[] current, long[] baseline) {
+        int n1 = current.length;
+        int n2 = baseline.length;
+        int n = n1 + n2;
+        long[] values = new long[n];
+        boolean[] fromCurrent = new boolean[n];
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            values[i] = i < n1 ? current[i] : baseline[i - n1];
+            fromCurrent[i] = i < n1;
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(values[a], values[b]));
+
+        double rankSum = 0;
+        double ties = 0;
+        for (int start = 0; start < n; ) {
+            int end = start;
+            while (end + 1 < n && values[order[end + 1]] == values[order[start]])
+                end++;
+            double rank = (start + end) / 2.0 + 1;
+            for (int i = start; i <= end; i++) {
+                if (fromCurrent[order[i]])
+                    rankSum += rank;
+            }
+            double t = end - start + 1;
+            ties += t * t * t - t;
+            start = end + 1;
+        }
+
+        double u = rankSum - n1 * (n1 + 1) / 2.0;
+        double mean = (double) n1 * n2 / 2;
+        double variance = (double) n1 * n2 / 12 * ((n + 1) - ties / ((double) n * (n - 1)));
+        if (variance <= 0)
+            return 1;
+        double z = (u - mean - 0.5) / Math.sqrt(variance);
+        return Erfc(z / Math.sqrt(2)) / 2;
+    }
+
+    // bytes taken by the header and the run records written whole; 0 without a whole header
+    private static long CompleteLength(FileChannel channel) throws IOException {
+        long size = channel.size();
+        long end = 2L * Integer.BYTES;
+        if (size < end)
+            return 0;
+        ByteBuffer length = ByteBuffer.allocate(Integer.BYTES);
+        while (end + Integer.BYTES <= size) {
+            length.clear();
+            while (length.hasRemaining())
+                channel.read(length, end + length.position());
+            long next = end + Integer.BYTES + length.getInt(0);
+            if (length.getInt(0) < 0 || next > size)
+                break;
+            end = next;
+        }
+        return end;
+    }
+
+    // complementary error function, fractional error below 1.2e-7 (Numerical Recipes erfcc)
+    private static double Erfc(double x) {
+        double z = Math.abs(x);
+        double t = 1 / (1 + z / 2);
+        double erfc = t * Math.exp(-z * z - 1.26551223 + t * (1.00002368 + t * (0.37409196 + t * (0.09678418
+                + t * (-0.18628806 + t * (0.27886807 + t * (-1.13520398 + t * (1.48851587
+                + t * (-0.82215223 + t * 0.17087277)))))))));
+        return x >= 0 ? erfc : 2 - erfc;
+    }
+
+    private static long Median(long[] values) {
+        if (values.length == 0)
+            return 0;
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
+    private static class Run {
+        final long epochMillis;
+        final String target;
+        final Map<Endpoint, long[]> samples;
+
+        Run(long epochMillis, String target, Map<Endpoint, long[]> samples) {
+            this.epochMillis = epochMillis;
+            this.target = target;
+            this.samples = samples;
+        }
+
+        byte[] Write() throws IOException {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeLong(epochMillis);
+            out.writeUTF(target);
+            out.writeInt(samples.size());
+            for (Map.Entry<Endpoint, long[]> entry : samples.entrySet()) {
+                long[] sorted = entry.getValue().clone();
+                Arrays.sort(sorted);
+                out.writeUTF(entry.getKey().label);
+                WriteVarint(out, sorted.length);
+                long previous = 0;
+                for (long micros : sorted) {
+                    WriteVarint(out, micros - previous);
+                    previous = micros;
+                }
+            }
+            return bytes.toByteArray();
+        }
+
+        static Run Read(DataInputStream in) throws IOException {
+            long epochMillis = in.readLong();
+            String target = in.readUTF();
+            Map<Endpoint, long[]> samples = new EnumMap<>(Endpoint.class);
+            for (int i = in.readInt(); i > 0; i--) {
+                Endpoint endpoint = Endpoint.Named(in.readUTF());
+                long[] values = new long[(int) ReadVarint(in)];
+                long previous = 0;
+                for (int j = 0; j < values.length; j++)
+                    values[j] = previous += ReadVarint(in);
+                samples.put(endpoint, values);
+            }
+            return new Run(epochMillis, target, samples);
+        }
+
+        private static void WriteVarint(DataOutputStream out, long value) throws IOException {
+            while ((value & ~0x7FL) != 0) {
+                out.writeByte((int) (value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            out.writeByte((int) value);
+        }
+
+        private static long ReadVarint(InputStream in) throws IOException {
+            long value = 0;
+            for (int shift = 0; ; shift += 7) {
+                int b = in.read();
+                if (b < 0)
+                    throw new EOFException();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0)
+                    return value;
+            }
+        }
+    }
+
+    public static class Comparison {
+        public final Endpoint endpoint;
+        public final int baselineRuns;
+        public final int samples;
+        public final int baselineSamples;
+        public final long medianMicros;
+        public final long baselineMedianMicros;
+        public final double pValue;
+        public final boolean slower;
+
+        // the baseline median is the median of the baseline runs' medians
+        Comparison(Endpoint endpoint, long[] samples, List<long[]> baseline, double pValue, double alpha) {
+            this.endpoint = endpoint;
+            this.baselineRuns = baseline.size();
+            this.samples = samples.length;
+            this.baselineSamples = baseline.stream().mapToInt(run -> run.length).sum();
+            this.medianMicros = Median(samples);
+            this.baselineMedianMicros = Median(baseline.stream().mapToLong(LatencyBaseline::Median).toArray());
+            this.pValue = pValue;
+            this.slower = pValue < alpha;
+        }
+
+        @Override
+        public String toString() {
+            if (Double.isNaN(pValue))
+                return String.format("%-10s n=%-5d baseline n=%-5d from %d runs, too few samples to compare",
+                        endpoint.label, samples, baselineSamples, baselineRuns);
+            return String.format("%-10s n=%-5d baseline n=%-5d from %2d runs  median %8.1fms vs %8.1fms (%+.1f%%)  max p=%.4f%s",
+                    endpoint.label, samples, baselineSamples, baselineRuns, medianMicros / 1000.0,
+                    baselineMedianMicros / 1000.0, 100.0 * (medianMicros - baselineMedianMicros) / baselineMedianMicros,
+                    pValue, slower ? "  SLOWER" : "");
+        }
+    }
+}
@@ -0,0 +1,65 @@
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+// Runs differ from each other by more than their own samples do, so a run is only slower
+// when it is slower than each baseline run, not than their pooled samples.
+public class LatencyBaselineTest {
+    private static final String target = "local";
+
+    @Test
+    public void WithinRunToRunDrift_NotSlower() throws IOException {
+        LatencyBaseline baseline = Baseline(100_000, 120_000, 100_000, 120_000);
+        LatencyBaseline.Comparison comparison = Compare(baseline, Samples(120_000, 5));
+        Assert.assertEquals(comparison.baselineRuns, 4);
+        Assert.assertFalse(comparison.slower, comparison.toString());
+    }
+
+    @Test
+    public void SlowerThanEveryRun_Slower() throws IOException {
+        LatencyBaseline baseline = Baseline(100_000, 120_000, 100_000, 120_000);
+        LatencyBaseline.Comparison comparison = Compare(baseline, Samples(150_000, 5));
+        Assert.assertTrue(comparison.slower, comparison.toString());
+    }
+
+    @Test
+    public void TooFewSamples_NotCompared() throws IOException {
+        LatencyBaseline.Comparison comparison = Compare(Baseline(100_000), new long[]{150_000, 150_000});
+        Assert.assertTrue(Double.isNaN(comparison.pValue));
+        Assert.assertFalse(comparison.slower);
+    }
+
+    // one run per median, each with 200 samples spread around it
+    private static LatencyBaseline Baseline(long... medians) throws IOException {
+        Path file = Files.createTempFile("latency-baseline", ".bin");
+        Files.delete(file);
+        file.toFile().deleteOnExit();
+        LatencyBaseline baseline = LatencyBaseline.Load(file);
+        int seed = 0;
+        for (long median : medians)
+            baseline.Append(target, Map.of(Endpoint.PAGES, Samples(median, seed++)));
+        return baseline;
+    }
+
+    private static LatencyBaseline.Comparison Compare(LatencyBaseline baseline, long[] samples) {
+        List<LatencyBaseline.Comparison> comparisons = baseline.Compare(target,
+                Map.of(Endpoint.PAGES, samples), 10, 0.01);
+        Assert.assertEquals(comparisons.size(), 1);
+        return comparisons.get(0);
+    }
+
+    // 200 latencies in microseconds within 5% of `median`
+    private static long[] Samples(long median, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        long[] samples = new long[200];
+        for (int i = 0; i < samples.length; i++)
+            samples[i] = Math.round(median * (0.95 + 0.1 * random.nextDouble()));
+        return samples;
+    }
+}
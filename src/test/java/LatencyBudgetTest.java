@@ -0,0 +1,19 @@
+import org.testng.Assert;
+import org.testng.annotations.Optional;
+import org.testng.annotations.Parameters;
+import org.testng.annotations.Test;
+
+import java.util.List;
+
+// Checks the latencyBudgets of the suite against every request the tests before it made.
+// It sits in a <test> of its own after them, as the tests of one <test> run in parallel,
+// and Shards keeps it on every shard, each judging its own requests.
+public class LatencyBudgetTest {
+
+    @Test
+    @Parameters("latencyBudgets")
+    public void Budgets_NotExceeded(@Optional("") String latencyBudgets) {
+        List<String> breaches = LatencyRecorder.Breaches(latencyBudgets);
+        Assert.assertTrue(breaches.isEmpty(), "Latency budgets exceeded: " + breaches);
+    }
+}
@@ -0,0 +1,70 @@
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Lock-free latency histogram in microseconds. Values below 64us get exact buckets,
+// larger ones 32 buckets per power of two, so any reported percentile is within ~3%.
+public class LatencyHistogram {
+    private static final int subBuckets = 32;
+    private static final int linearLimit = 2 * subBuckets;
+    private static final int bucketCount = linearLimit + 58 * subBuckets;
+
+    private final AtomicLongArray counts = new AtomicLongArray(bucketCount);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    public void Record(long micros) {
+        long value = Math.max(0, micros);
+        counts.incrementAndGet(Index(value));
+        count.incrementAndGet();
+        max.accumulateAndGet(value, Math::max);
+    }
+
+    public void Add(LatencyHistogram other) {
+        for (int i = 0; i < bucketCount; i++) {
+            long n = other.counts.get(i);
+            if (n > 0)
+                counts.addAndGet(i, n);
+        }
+        count.addAndGet(other.count());
+        max.accumulateAndGet(other.max(), Math::max);
+    }
+
+    public long count() {
+        return count.get();
+    }
+
+    public long max() {
+        return max.get();
+    }
+
+    // highest value equivalent to the bucket holding the given percentile (0-100)
+    public long Percentile(double percentile) {
+        long total = count.get();
+        if (total == 0)
+            return 0;
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * total));
+        long seen = 0;
+        for (int i = 0; i < bucketCount; i++) {
+            seen += counts.get(i);
+            if (seen >= rank)
+                return Math.min(UpperBound(i), max.get());
+        }
+        return max.get();
+    }
+
+    private static int Index(long value) {
+        if (value < linearLimit)
+            return (int) value;
+        int shift = 63 - Long.numberOfLeadingZeros(value) - 5;
+        int sub = (int) (value >>> shift);
+        return Math.min(bucketCount - 1, linearLimit + (shift - 1) * subBuckets + (sub - subBuckets));
+    }
+
+    private static long UpperBound(int index) {
+        if (index < linearLimit)
+            return index;
+        int shift = (index - linearLimit) / subBuckets + 1;
+        int sub = (index - linearLimit) % subBuckets + subBuckets;
+        return ((long) (sub + 1) << shift) - 1;
+    }
+}
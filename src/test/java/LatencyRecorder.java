@@ -0,0 +1,102 @@
+import io.restassured.filter.FilterContext;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+// Measures every request that reaches the network, from send to the last body byte,
+// into one histogram per endpoint and status plus one per endpoint across statuses.
+// Raw latencies of successful requests are also sampled per endpoint for LatencyBaseline.
+public class LatencyRecorder {
+    static final int samplesPerEndpoint = 2048;
+
+    private static final ConcurrentMap<String, LatencyHistogram> byStatus = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<Endpoint, LatencyHistogram> byEndpoint = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<Endpoint, Reservoir> samples = new ConcurrentHashMap<>();
+
+    public static Response Record(FilterableRequestSpecification requestSpec,
+            FilterableResponseSpecification responseSpec, FilterContext ctx) {
+        long start = System.nanoTime();
+        Response response = ctx.next(requestSpec, responseSpec);
+        response.asByteArray();
+        long micros = (System.nanoTime() - start) / 1000;
+        Endpoint endpoint = Endpoint.Of(requestSpec.getURI());
+        // writes, such as seeding fixtures, are reported on their own and kept out of budgets and baselines
+        if (requestSpec.getMethod().equals("GET"))
+            Record(endpoint, response.getStatusCode(), micros);
+        else
+            byStatus.computeIfAbsent(endpoint.label + " " + requestSpec.getMethod() + " " + response.getStatusCode(),
+                    k -> new LatencyHistogram()).Record(micros);
+        return response;
+    }
+
+    public static void Record(Endpoint endpoint, int status, long micros) {
+        byStatus.computeIfAbsent(endpoint.label + " " + status, k -> new LatencyHistogram()).Record(micros);
+        byEndpoint.computeIfAbsent(endpoint, k -> new LatencyHistogram()).Record(micros);
+        if (status / 100 == 2)
+            samples.computeIfAbsent(endpoint, k -> new Reservoir(samplesPerEndpoint)).Add(micros);
+    }
+
+    // sampled microseconds of the 2xx responses of each endpoint
+    public static Map<Endpoint, long[]> Samples() {
+        Map<Endpoint, long[]> values = new EnumMap<>(Endpoint.class);
+        samples.forEach((endpoint, reservoir) -> values.put(endpoint, reservoir.Values()));
+        return values;
+    }
+
+    public static LatencyHistogram Of(Endpoint endpoint) {
+        return byEndpoint.getOrDefault(endpoint, new LatencyHistogram());
+    }
+
+    public static void Reset() {
+        byStatus.clear();
+        byEndpoint.clear();
+        samples.clear();
+    }
+
+    public static List<String> Report() {
+        List<String> lines = new ArrayList<>();
+        for (Map.Entry<String, LatencyHistogram> entry : new TreeMap<>(byStatus).entrySet())
+            lines.add(Format(entry.getKey(), entry.getValue()));
+        return lines;
+    }
+
+    public static String Format(String name, LatencyHistogram histogram) {
+        return String.format("%-20s n=%-5d p50=%8.1fms p95=%8.1fms p99=%8.1fms max=%8.1fms", name, histogram.count(),
+                histogram.Percentile(50) / 1000.0, histogram.Percentile(95) / 1000.0,
+                histogram.Percentile(99) / 1000.0, histogram.max() / 1000.0);
+    }
+
+    // budgets look like "pages:p95=800, components:p99=1500, *:max=5000" (milliseconds)
+    public static List<String> Breaches(String budgets) {
+        List<String> breaches = new ArrayList<>();
+        for (String budget : budgets.split(",")) {
+            if (budget.isBlank())
+                continue;
+            String[] parts = budget.trim().split("[:=]");
+            if (parts.length != 3)
+                throw new IllegalArgumentException("Latency budget must look like endpoint:p95=800, got " + budget);
+
+            long limitMicros = Long.parseLong(parts[2].trim()) * 1000;
+            for (Endpoint endpoint : parts[0].trim().equals("*") ? Endpoint.values()
+                    : new Endpoint[]{Endpoint.Named(parts[0].trim())}) {
+                LatencyHistogram histogram = byEndpoint.get(endpoint);
+                if (histogram == null)
+                    continue;
+                long actual = parts[1].trim().equals("max") ? histogram.max()
+                        : histogram.Percentile(Double.parseDouble(parts[1].trim().substring(1)));
+                if (actual > limitMicros)
+                    breaches.add(endpoint.label + " " + parts[1].trim() + " " + actual / 1000.0
+                            + "ms exceeds budget of " + parts[2].trim() + "ms");
+            }
+        }
+        return breaches;
+    }
+}
@@ -0,0 +1,200 @@
+import io.restassured.response.Response;
+import org.testng.Reporter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+// Drives the suite's endpoints with sustained traffic. The closed model keeps a fixed
+// number of users each sending its next request as soon as the previous one returns;
+// the open model sends at a fixed arrival rate whether or not earlier requests finished,
+// so a slow server shows up as growing latency instead of fewer requests. Both ramp up
+// linearly over rampUpSeconds and print throughput, errors and latency every second.
+public class LoadGenerator {
+    public static final String closedModel = "closed";
+    public static final String openModel = "open";
+
+    private final List<String> urls = new ArrayList<>();
+    private String model = closedModel;
+    private int users = 10;
+    private double rate = 50;
+    private int maxInFlight = 1000;
+    private long rampUpNanos;
+    private long durationNanos = TimeUnit.SECONDS.toNanos(30);
+
+    private final AtomicLong next = new AtomicLong();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicReference<LatencyHistogram> interval = new AtomicReference<>(new LatencyHistogram());
+    private final LatencyHistogram total = new LatencyHistogram();
+
+    // each endpoint resolves to its fixture URL once; requests go round-robin over them
+    public LoadGenerator Endpoints(List<Endpoint> endpoints) {
+        for (Endpoint endpoint : endpoints)
+            urls.add(endpoint.Url());
+        return this;
+    }
+
+    public LoadGenerator Closed(int concurrentUsers) {
+        model = closedModel;
+        users = concurrentUsers;
+        return this;
+    }
+
+    // RunOpen schedules arrivals by dividing by the rate
+    public LoadGenerator Open(double requestsPerSecond, int inFlightLimit) {
+        if (!(requestsPerSecond > 0))
+            throw new IllegalArgumentException("Open model needs a positive arrival rate, not " + requestsPerSecond);
+        model = openModel;
+        rate = requestsPerSecond;
+        maxInFlight = inFlightLimit;
+        return this;
+    }
+
+    public LoadGenerator RampUp(int seconds) {
+        rampUpNanos = TimeUnit.SECONDS.toNanos(seconds);
+        return this;
+    }
+
+    public LoadGenerator Duration(int seconds) {
+        durationNanos = TimeUnit.SECONDS.toNanos(seconds);
+        return this;
+    }
+
+    public Result Run() throws InterruptedException {
+        if (urls.isEmpty())
+            throw new IllegalStateException("No endpoints to load");
+
+        long start = System.nanoTime();
+        Thread progress = Thread.ofVirtual().name("load-progress").start(() -> Progress(start));
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            if (model.equals(openModel))
+                RunOpen(executor, start);
+            else
+                RunClosed(executor, start);
+        } finally {
+            progress.interrupt();
+            progress.join();
+        }
+        return new Result(requests.get(), errors.get(), dropped.get(), System.nanoTime() - start, total);
+    }
+
+    // user i joins at i/users of the ramp-up and loops until the run ends
+    private void RunClosed(ExecutorService executor, long start) {
+        long end = start + durationNanos;
+        for (int i = 0; i < users; i++) {
+            long joinAt = start + rampUpNanos * i / users;
+            executor.submit(() -> {
+                ParkUntil(joinAt);
+                while (System.nanoTime() < end) {
+                    inFlight.incrementAndGet();
+                    Send();
+                }
+            });
+        }
+    }
+
+    // arrival k is scheduled where the ramped rate has integrated to k requests
+    private void RunOpen(ExecutorService executor, long start) {
+        double ramp = rampUpNanos / 1e9;
+        double rampArrivals = rate * ramp / 2;
+        for (long k = 0; ; k++) {
+            double at = k < rampArrivals ? Math.sqrt(2 * k * ramp / rate) : ramp + (k - rampArrivals) / rate;
+            long sendAt = start + (long) (at * 1e9);
+            if (sendAt - start >= durationNanos)
+                return;
+            ParkUntil(sendAt);
+            // counted when submitted, as a burst of tasks may all be queued before one runs
+            if (inFlight.get() >= maxInFlight) {
+                dropped.incrementAndGet();
+                continue;
+            }
+            inFlight.incrementAndGet();
+            executor.submit(this::Send);
+        }
+    }
+
+    // the caller counts the request in flight; Send counts it out
+    private void Send() {
+        String url = urls.get((int) (next.getAndIncrement() % urls.size()));
+        long sent = System.nanoTime();
+        try {
+            Response response = Api.fresh().when().get(url);
+            if (response.getStatusCode() != 200)
+                errors.incrementAndGet();
+        } catch (Exception e) {
+            errors.incrementAndGet();
+        } finally {
+            long micros = (System.nanoTime() - sent) / 1000;
+            interval.get().Record(micros);
+            total.Record(micros);
+            inFlight.decrementAndGet();
+            requests.incrementAndGet();
+        }
+    }
+
+    private void Progress(long start) {
+        long lastRequests = 0;
+        long lastErrors = 0;
+        long tick = start;
+        while (true) {
+            tick += TimeUnit.SECONDS.toNanos(1);
+            ParkUntil(tick);
+            if (Thread.currentThread().isInterrupted())
+                return;
+            LatencyHistogram second = interval.getAndSet(new LatencyHistogram());
+            long sent = requests.get();
+            long failed = errors.get();
+            Reporter.log(String.format("t=%3ds %-6s rps=%-6d errors=%-4d inFlight=%-4d dropped=%-4d p50=%7.1fms p99=%7.1fms",
+                    TimeUnit.NANOSECONDS.toSeconds(tick - start), model, sent - lastRequests, failed - lastErrors,
+                    inFlight.get(), dropped.get(), second.Percentile(50) / 1000.0, second.Percentile(99) / 1000.0), true);
+            lastRequests = sent;
+            lastErrors = failed;
+        }
+    }
+
+    private static void ParkUntil(long deadline) {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0 && !Thread.currentThread().isInterrupted())
+            LockSupport.parkNanos(remaining);
+    }
+
+    public static class Result {
+        public final long requests;
+        public final long errors;
+        public final long dropped;
+        public final long elapsedNanos;
+        public final LatencyHistogram latency;
+
+        Result(long requests, long errors, long dropped, long elapsedNanos, LatencyHistogram latency) {
+            this.requests = requests;
+            this.errors = errors;
+            this.dropped = dropped;
+            this.elapsedNanos = elapsedNanos;
+            this.latency = latency;
+        }
+
+        public double throughput() {
+            return requests / (elapsedNanos / 1e9);
+        }
+
+        public double errorRate() {
+            return requests == 0 ? 0 : (double) errors / requests;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d requests in %.1fs (%.1f/s), %d errors (%.2f%%), %d dropped%n%s", requests,
+                    elapsedNanos / 1e9, throughput(), errors, errorRate() * 100, dropped,
+                    LatencyRecorder.Format("total", latency));
+        }
+    }
+}
@@ -0,0 +1,41 @@
+import org.testng.Assert;
+import org.testng.Reporter;
+import org.testng.SkipException;
+import org.testng.annotations.Optional;
+import org.testng.annotations.Parameters;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Entry point of load.xml: mvn test -DsuiteXmlFile=load.xml
+public class LoadTest {
+
+    @Test
+    @Parameters({"loadModel", "loadUsers", "loadRate", "loadMaxInFlight", "loadRampUp", "loadDuration",
+            "loadEndpoints", "loadMaxErrorRate"})
+    public void Load(@Optional(LoadGenerator.closedModel) String model, @Optional("10") int users,
+            @Optional("50") double rate, @Optional("1000") int maxInFlight, @Optional("5") int rampUp,
+            @Optional("30") int duration, @Optional("pages,components,incidents") String endpoints,
+            @Optional("0.01") double maxErrorRate) throws InterruptedException {
+        List<Endpoint> targets = new ArrayList<>();
+        for (String label : endpoints.split(","))
+            targets.add(Endpoint.Named(label.trim()));
+
+        LoadGenerator generator = new LoadGenerator().Endpoints(targets).RampUp(rampUp).Duration(duration);
+        if (model.equals(LoadGenerator.openModel))
+            generator.Open(rate, maxInFlight);
+        else if (model.equals(LoadGenerator.closedModel))
+            generator.Closed(users);
+        else
+            throw new IllegalArgumentException("Unknown load model " + model);
+
+        LoadGenerator.Result result = generator.Run();
+        Reporter.log("Load " + model + ": " + result, true);
+        if (Api.circuitBreaker().open())
+            throw new SkipException("Circuit breaker open: " + Api.circuitBreaker().openReason());
+        Assert.assertTrue(result.requests > 0, "No requests were sent");
+        Assert.assertTrue(result.errorRate() <= maxErrorRate,
+                "Error rate " + result.errorRate() + " exceeds " + maxErrorRate);
+    }
+}
@@ -0,0 +1,132 @@
+import io.restassured.response.Response;
+import org.testng.Assert;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+// Walks page=1,2,... of a list endpoint until the first empty page. Up to `concurrency`
+// pages are in flight ahead of the consumer, so page N+1 is already on its way while the
+// stream hands out page N. Pages past the end are fetched speculatively and dropped, as
+// are those ahead of a failure or of a stream closed early. Dropping a page does not abort
+// its request: one already sent finishes on its own and still counts toward the test.
+public class PageCrawler {
+    static final int maxPages = 10_000;
+
+    private final String url;
+    private final int perPage;
+    private final int concurrency;
+
+    public PageCrawler(String url, int perPage, int concurrency) {
+        this.url = url;
+        this.perPage = perPage;
+        this.concurrency = Math.max(1, concurrency);
+    }
+
+    // non-empty pages in order; a non-200 page or a body that is not a list fails the stream
+    public Stream<Page> Pages() {
+        Deque<CompletableFuture<Page>> window = new ArrayDeque<>();
+
+        Spliterator<Page> pages = new Spliterators.AbstractSpliterator<Page>(Long.MAX_VALUE,
+                Spliterator.ORDERED | Spliterator.NONNULL) {
+            private int next = 1;
+            private boolean done;
+            private List<String> previous;
+
+            @Override
+            public boolean tryAdvance(Consumer<? super Page> action) {
+                if (done)
+                    return false;
+                while (window.size() < concurrency && next <= maxPages) {
+                    int number = next++;
+                    window.add(Async.Run(() -> Fetch(number)));
+                }
+                if (window.isEmpty())
+                    Assert.fail(url + " still had elements after " + maxPages + " pages");
+
+                // a failed page, or a consumer that throws, ends the crawl and drops the pages ahead
+                try {
+                    Page page = Async.Join(window.poll());
+                    if (page.count() == 0) {
+                        done = true;
+                        Cancel(window);
+                        return false;
+                    }
+                    // an endpoint that ignores page would otherwise be crawled up to maxPages
+                    if (page.ids().equals(previous))
+                        Assert.fail(url + " page " + page.number() + " repeats page " + (page.number() - 1));
+                    previous = page.ids();
+                    action.accept(page);
+                    return true;
+                } catch (RuntimeException | AssertionError e) {
+                    done = true;
+                    Cancel(window);
+                    throw e;
+                }
+            }
+        };
+        return StreamSupport.stream(pages, false).onClose(() -> Cancel(window));
+    }
+
+    public Stream<String> Ids() {
+        return Pages().flatMap(page -> page.ids().stream());
+    }
+
+    private Page Fetch(int number) {
+        Response response = Api.given()
+                .queryParam("page", number)
+                .queryParam("per_page", perPage)
+                .when()
+                .get(url)
+                .then()
+                .extract()
+                .response();
+
+        Assert.assertEquals(response.getStatusCode(), 200, url + " page " + number);
+        StreamingListValidator.Result result = new StreamingListValidator().Validate(response).AssertValid();
+        return new Page(number, response, result.ids(), result.count());
+    }
+
+    // stops waiting for the pages; their requests run on to the end
+    private static void Cancel(Deque<CompletableFuture<Page>> window) {
+        for (CompletableFuture<Page> page : window)
+            page.cancel(true);
+        window.clear();
+    }
+
+    public static class Page {
+        private final int number;
+        private final Response response;
+        private final List<String> ids;
+        private final int count;
+
+        Page(int number, Response response, List<String> ids, int count) {
+            this.number = number;
+            this.response = response;
+            this.ids = ids;
+            this.count = count;
+        }
+
+        public int number() {
+            return number;
+        }
+
+        public Response response() {
+            return response;
+        }
+
+        public List<String> ids() {
+            return ids;
+        }
+
+        public int count() {
+            return count;
+        }
+    }
+}
@@ -0,0 +1,218 @@
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.restassured.response.Response;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+// Walks every page of a seeded list while writers create, update and delete its entities,
+// and counts what offset pagination does to the walk: ids served twice (an insert ahead of
+// the reader's offset pushes them onto the next page) and ids never served although they
+// existed from the first page to the last (a delete ahead of the offset pulls them back
+// onto a page already read). Only ids the seeder tracked for the whole walk can be skipped.
+public class PaginationConsistency {
+    // created entities are numbered from here, clear of the seeded ones
+    static final int firstWrittenEntity = 1_000_000;
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+    private static final long writeBackoffNanos = TimeUnit.MILLISECONDS.toNanos(50);
+
+    private final FixtureSeeder seeder;
+    private final Endpoint list;
+    private final int writers;
+    private final AtomicInteger written = new AtomicInteger(firstWrittenEntity);
+    private final LongAdder writes = new LongAdder();
+    private final LongAdder writeFailures = new LongAdder();
+
+    // list is COMPONENTS or INCIDENTS of the seeder's page
+    public PaginationConsistency(FixtureSeeder seeder, Endpoint list, int writers) {
+        this.seeder = seeder;
+        this.list = list;
+        this.writers = writers;
+    }
+
+    // walks times through every page of perPage ids with the writers running
+    public Result Measure(int perPage, int walks) {
+        Result result = new Result(list, perPage);
+        long writesBefore = writes.sum();
+        AtomicBoolean stop = new AtomicBoolean();
+        List<CompletableFuture<Void>> running = new ArrayList<>();
+        for (int i = 0; i < writers; i++) {
+            running.add(Async.Run(() -> {
+                Write(stop);
+                return null;
+            }));
+        }
+        try {
+            for (int i = 0; i < walks; i++)
+                result.Add(Walk(perPage));
+        } finally {
+            stop.set(true);
+            running.forEach(Async::Join);
+        }
+        result.writes = writes.sum() - writesBefore;
+        return result;
+    }
+
+    public Walk Walk(int perPage) {
+        Set<String> before = seeder.Ids(list);
+        Map<String, Integer> served = new HashMap<>();
+        int untracked = 0;
+        int pages = 0;
+        // writers may keep the last page full for a while; twice the pages there were is plenty
+        // (untracked counts ids served that were not seeded before the walk)
+        while (pages < 2 * ((before.size() + untracked) / perPage + 1) + 10) {
+            pages++;
+            List<String> ids = Ids(list.Url(seeder.pageId(), null) + "?page=" + pages + "&per_page=" + perPage);
+            for (String id : ids) {
+                if (served.merge(id, 1, Integer::sum) == 1 && !before.contains(id))
+                    untracked++;
+            }
+            if (ids.size() < perPage)
+                break;
+        }
+        Set<String> after = seeder.Ids(list);
+        // only ids the seeder tracks count: a sandbox page may hold entities of its own, and
+        // an entity created and deleted during the walk may or may not be served
+        served.keySet().removeIf(id -> !before.contains(id) && !after.contains(id));
+
+        Walk walk = new Walk();
+        walk.pages = pages;
+        walk.served = served.size();
+        for (String id : before) {
+            if (after.contains(id)) {
+                walk.stable++;
+                if (!served.containsKey(id))
+                    walk.skipped++;
+            }
+        }
+        for (int count : served.values())
+            walk.duplicated += count - 1;
+        return walk;
+    }
+
+    public long writeFailures() {
+        return writeFailures.sum();
+    }
+
+    // create, update or delete, one third each, so the list keeps about its size
+    private void Write(AtomicBoolean stop) {
+        while (!stop.get()) {
+            int n = written.incrementAndGet();
+            try {
+                int action = ThreadLocalRandom.current().nextInt(3);
+                if (action == 0) {
+                    seeder.Create(list, n);
+                } else {
+                    List<String> ids = new ArrayList<>(seeder.Ids(list));
+                    if (ids.isEmpty())
+                        continue;
+                    String id = ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+                    if (action == 1)
+                        seeder.Update(list, id, n);
+                    else
+                        seeder.Delete(list, id);
+                }
+                writes.increment();
+            } catch (RuntimeException e) {
+                writeFailures.increment();
+                LockSupport.parkNanos(writeBackoffNanos);
+            }
+        }
+    }
+
+    private static List<String> Ids(String url) {
+        Response response = Api.fresh()
+                .when()
+                .get(url)
+                .then()
+                .extract()
+                .response();
+        if (response.getStatusCode() != 200)
+            throw new AssertionError("GET " + url + " returned " + response.getStatusCode());
+        List<String> ids = new ArrayList<>();
+        try {
+            for (JsonNode entity : mapper.readTree(response.asByteArray()))
+                ids.add(entity.path("id").asText());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return ids;
+    }
+
+    // one pass over every page
+    public static class Walk {
+        public int pages;
+        public int served;
+        public int stable;
+        public int duplicated;
+        public int skipped;
+
+        public boolean clean() {
+            return duplicated == 0 && skipped == 0;
+        }
+
+        @Override
+        public String toString() {
+            return pages + " pages, " + served + " ids served, " + stable + " stable, " + duplicated
+                    + " duplicated, " + skipped + " skipped";
+        }
+    }
+
+    // the walks of one page size
+    public static class Result {
+        public final Endpoint list;
+        public final int perPage;
+        public int walks;
+        public int affectedWalks;
+        public long pages;
+        public long stable;
+        public long duplicated;
+        public long skipped;
+        public long writes;
+
+        Result(Endpoint list, int perPage) {
+            this.list = list;
+            this.perPage = perPage;
+        }
+
+        void Add(Walk walk) {
+            walks++;
+            if (!walk.clean())
+                affectedWalks++;
+            pages += walk.pages;
+            stable += walk.stable;
+            duplicated += walk.duplicated;
+            skipped += walk.skipped;
+        }
+
+        // duplicated and skipped ids per stable id walked
+        public double anomalyRate() {
+            return stable == 0 ? 0 : (double) (duplicated + skipped) / stable;
+        }
+
+        public String CsvLine() {
+            return list.label + "," + perPage + "," + walks + "," + pages + "," + stable + "," + duplicated + ","
+                    + skipped + "," + affectedWalks + "," + writes;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-10s per_page=%-3d %d walks over %d pages: %d duplicated, %d skipped of %d stable ids "
+                            + "(%.2f%%), %d of %d walks affected, %d writes", list.label, perPage, walks, pages,
+                    duplicated, skipped, stable, 100 * anomalyRate(), affectedWalks, walks, writes);
+        }
+    }
+}
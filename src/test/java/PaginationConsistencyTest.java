@@ -0,0 +1,96 @@
+import org.testng.Assert;
+import org.testng.Reporter;
+import org.testng.SkipException;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Optional;
+import org.testng.annotations.Parameters;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+// Entry point of consistency.xml: mvn test -DsuiteXmlFile=consistency.xml
+// Pages through the seeded components and incidents while they are written to, once per
+// page size. Without writers a walk must serve every id once; with them the duplicated and
+// skipped ids are reported, and fail the run above consistencyMaxAnomalyRate unless it is
+// negative. Only ids the seeder tracks are counted, so a sandbox seedPage may hold others.
+public class PaginationConsistencyTest {
+    private final List<PaginationConsistency.Result> results = new ArrayList<>();
+    private FixtureSeeder seeder;
+    private int[] pageSizes;
+    private int walks;
+    private int writers;
+    private double maxAnomalyRate;
+    private String report;
+
+    @DataProvider
+    public static Object[][] lists() {
+        return new Object[][]{{Endpoint.COMPONENTS}, {Endpoint.INCIDENTS}};
+    }
+
+    @BeforeClass
+    @Parameters({"consistencyPageSizes", "consistencyWalks", "consistencyWriters", "consistencyMaxAnomalyRate",
+            "consistencyReport"})
+    public void Configure(@Optional("10,25,50,100") String pageSizes, @Optional("5") int walks,
+            @Optional("4") int writers, @Optional("-1") double maxAnomalyRate,
+            @Optional("target/pagination-consistency.csv") String report) {
+        seeder = ApiSuite.seeder();
+        if (seeder == null)
+            throw new SkipException("Needs a seeded page to write to: the stand-in, or seedLive with a sandbox seedPage");
+        List<Integer> sizes = new ArrayList<>();
+        for (String size : pageSizes.split(","))
+            sizes.add(Integer.parseInt(size.trim()));
+        this.pageSizes = sizes.stream().mapToInt(Integer::intValue).toArray();
+        this.walks = walks;
+        this.writers = writers;
+        this.maxAnomalyRate = maxAnomalyRate;
+        this.report = report;
+    }
+
+    @Test(dataProvider = "lists")
+    public void Walk_UnderConcurrentWrites(Endpoint list) {
+        PaginationConsistency checker = new PaginationConsistency(seeder, list, writers);
+        List<PaginationConsistency.Result> measured = new ArrayList<>();
+        for (int perPage : pageSizes) {
+            PaginationConsistency.Walk control = checker.Walk(perPage);
+            Assert.assertTrue(control.clean() && control.served == control.stable,
+                    list.label + " per_page=" + perPage + " without writers: " + control);
+
+            PaginationConsistency.Result result = checker.Measure(perPage, walks);
+            Reporter.log(result.toString(), true);
+            measured.add(result);
+        }
+        if (checker.writeFailures() > 0)
+            Reporter.log(list.label + ": " + checker.writeFailures() + " writes failed", true);
+        synchronized (results) {
+            results.addAll(measured);
+        }
+
+        if (maxAnomalyRate < 0)
+            return;
+        for (PaginationConsistency.Result result : measured)
+            Assert.assertTrue(result.anomalyRate() <= maxAnomalyRate, "Offset pagination lost or repeated "
+                    + String.format("%.2f%%", 100 * result.anomalyRate()) + " of the ids: " + result);
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void WriteReport() throws IOException {
+        if (report == null || report.isBlank() || results.isEmpty())
+            return;
+        Path path = Path.of(report);
+        if (path.getParent() != null)
+            Files.createDirectories(path.getParent());
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(path))) {
+            out.println("endpoint,perPage,walks,pages,stableIds,duplicated,skipped,affectedWalks,writes");
+            for (PaginationConsistency.Result result : results)
+                out.println(result.CsvLine());
+        }
+        Reporter.log("Pagination consistency written to " + report, true);
+    }
+}
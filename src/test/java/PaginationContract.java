@@ -0,0 +1,119 @@
+import io.restassured.http.ContentType;
+import io.restassured.response.Response;
+import org.testng.Assert;
+import org.testng.ITest;
+import org.testng.SkipException;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Factory;
+import org.testng.annotations.Test;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+// The page/per_page contract every paginated Instatus list follows, run once per endpoint.
+// Checks on one endpoint share their fetches: the unparameterized baseline and page=1 are
+// requested once each no matter how many checks compare against them. Checks comparing two
+// responses start both fetches before waiting for either.
+@RequestBudget(requests = 2)
+public class PaginationContract implements ITest {
+    static final int maxPerPage = 100;
+
+    private final Endpoint endpoint;
+    private final Map<String, CompletableFuture<Response>> fetched = new ConcurrentHashMap<>();
+    private String url;
+
+    @Factory(dataProvider = "paginatedEndpoints")
+    public PaginationContract(Endpoint endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    // one row per paginated list endpoint
+    @DataProvider
+    public static Object[][] paginatedEndpoints() {
+        return new Object[][]{
+                {Endpoint.PAGES},
+                {Endpoint.COMPONENTS},
+                {Endpoint.INCIDENTS},
+        };
+    }
+
+    @Override
+    public String getTestName() {
+        return endpoint.label;
+    }
+
+    @BeforeClass
+    public void SetUrl() {
+        url = endpoint.Url();
+    }
+
+    @Test
+    public void PagesAndPage1Param_Eq() {
+        Fetch("", "?page=1");
+        BodyComparison.AssertSameBody(Ok(""), Ok("?page=1"));
+    }
+
+    @Test
+    public void ParamPerPage_AsProvided() {
+        int listSize = StreamingListValidator.Count(Ok(""));
+        if (listSize < 2)
+            throw new SkipException("List size not enough to conduct TC");
+
+        int expectedListSize = listSize - 1;
+        Assert.assertEquals(StreamingListValidator.Count(Ok("?page=1&per_page=" + expectedListSize)),
+                expectedListSize);
+    }
+
+    @Test
+    public void ParamPerPageAboveMax_ExpectMax() {
+        Response response = Ok("?page=1&per_page=" + (maxPerPage + 1));
+        Assert.assertTrue(StreamingListValidator.Count(response) <= maxPerPage);
+    }
+
+    @Test
+    public void DifferentPages_NotEq() {
+        Fetch("?page=1", "?page=2");
+        BodyComparison.AssertDifferentBody(Ok("?page=1"), Ok("?page=2"));
+    }
+
+    @Test
+    public void InvalidParamPage_Expect422() {
+        Assert.assertEquals(Json("?page=INVALID").getStatusCode(), 422);
+    }
+
+    @Test
+    public void InvalidParamPerPage_Expect422() {
+        Assert.assertEquals(Json("?page=1&per_page=INVALID").getStatusCode(), 422);
+    }
+
+    @Test
+    public void OptionalParamPage_Expect200() {
+        Fetch("?page=1&per_page=1", "?per_page=1");
+        BodyComparison.AssertSameBody(Ok("?page=1&per_page=1"), Ok("?per_page=1"));
+    }
+
+    private Response Ok(String query) {
+        Response response = Json(query);
+        Assert.assertEquals(response.getStatusCode(), 200, url + query);
+        return response;
+    }
+
+    private Response Json(String query) {
+        Response response = Async.Join(Fetch(query));
+        Assert.assertEquals(ContentType.fromContentType(response.getContentType()), ContentType.JSON,
+                url + query + " returned " + response.getContentType());
+        return response;
+    }
+
+    // starts the fetch of each query unless another check already did; all checks share it
+    private void Fetch(String... queries) {
+        for (String query : queries)
+            Fetch(query);
+    }
+
+    private CompletableFuture<Response> Fetch(String query) {
+        return fetched.computeIfAbsent(query, q -> Api.getAsync(url + q));
+    }
+}
@@ -0,0 +1,218 @@
+import io.restassured.filter.FilterContext;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+import org.apache.http.Header;
+import org.apache.http.HttpConnection;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpRequestInterceptor;
+import org.apache.http.HttpResponseInterceptor;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.entity.DeflateDecompressingEntity;
+import org.apache.http.client.entity.GzipDecompressingEntity;
+import org.apache.http.entity.HttpEntityWrapper;
+import org.apache.http.impl.client.AbstractHttpClient;
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.impl.conn.PoolingClientConnectionManager;
+import org.apache.http.params.HttpConnectionParams;
+import org.apache.http.protocol.HttpCoreContext;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// The single keep-alive HTTP client behind Api's specifications. Connections are
+// pooled per route and a connection that has carried more than one request was reused.
+// The connect timeout is the client's own; the read timeout of each request is that of its
+// endpoint (Api.timeouts()). Body bytes are counted as they come off the connection, before
+// they are decoded.
+//
+// gzip and deflate bodies are decoded here, by interceptors registered once when the client
+// is built. RestAssured removes and re-adds its own on the shared client for every request,
+// which races with the requests other threads are sending, so the built client ignores that.
+@SuppressWarnings("deprecation")
+public class PooledHttpClient {
+    static final int maxConnections = 64;
+
+    private static final AtomicLong newConnections = new AtomicLong();
+    private static final AtomicLong reusedConnections = new AtomicLong();
+    // set by Release around the request it runs, which executes on the same thread
+    private static final ThreadLocal<LongAdder> wireBodyBytes = new ThreadLocal<>();
+
+    // acceptEncoding is offered when a request does not set Accept-Encoding itself; null
+    // offers nothing. Responses are decoded whichever encoding was asked for.
+    public static AbstractHttpClient Create(String acceptEncoding, Timeouts timeouts) {
+        PoolingClientConnectionManager pool = new PoolingClientConnectionManager();
+        pool.setMaxTotal(maxConnections);
+        pool.setDefaultMaxPerRoute(maxConnections);
+
+        FixedInterceptorsClient client = new FixedInterceptorsClient(pool);
+        // DefaultHttpClient takes its timeouts from its params, not from a RequestConfig
+        HttpConnectionParams.setConnectionTimeout(client.getParams(), timeouts.connectMillis());
+        HttpConnectionParams.setSoTimeout(client.getParams(), timeouts.readMillis(Endpoint.OTHER));
+        // runs once the connection is leased and after the client applied its default timeout
+        client.addRequestInterceptor((request, context) -> {
+            HttpConnection connection = HttpCoreContext.adapt(context).getConnection();
+            if (connection != null)
+                connection.setSocketTimeout(Api.timeouts().readMillis(Endpoint.Of(request.getRequestLine().getUri())));
+        });
+        client.addResponseInterceptor((response, context) -> {
+            HttpConnection connection = HttpCoreContext.adapt(context).getConnection();
+            if (connection == null)
+                return;
+            if (connection.getMetrics().getRequestCount() > 1)
+                reusedConnections.incrementAndGet();
+            else
+                newConnections.incrementAndGet();
+        });
+        if (acceptEncoding != null) {
+            client.addRequestInterceptor((request, context) -> {
+                if (!request.containsHeader("Accept-Encoding"))
+                    request.addHeader("Accept-Encoding", acceptEncoding);
+            });
+        }
+        // added before the decoder, so it wraps the counting entity
+        client.addResponseInterceptor((response, context) -> {
+            LongAdder counter = wireBodyBytes.get();
+            if (counter != null && response.getEntity() != null)
+                response.setEntity(new CountingEntity(response.getEntity(), counter));
+        });
+        // the Content-Encoding header is kept, so tests still see what came over the wire
+        client.addResponseInterceptor((response, context) -> {
+            HttpEntity entity = response.getEntity();
+            Header encoding = entity == null ? null : entity.getContentEncoding();
+            if (encoding == null)
+                return;
+            String coding = encoding.getValue().trim().toLowerCase(Locale.ROOT);
+            if (coding.equals("gzip") || coding.equals("x-gzip"))
+                response.setEntity(new GzipDecompressingEntity(entity));
+            else if (coding.equals("deflate"))
+                response.setEntity(new DeflateDecompressingEntity(entity));
+        });
+        client.built = true;
+        return client;
+    }
+
+    // RestAssured only drains the entity when a test reads the body, and an undrained
+    // connection is never handed back to the pool. Buffering here releases it right away.
+    public static Response Release(FilterableRequestSpecification requestSpec,
+            FilterableResponseSpecification responseSpec, FilterContext ctx) {
+        LongAdder wire = new LongAdder();
+        wireBodyBytes.set(wire);
+        Response response;
+        try {
+            response = ctx.next(requestSpec, responseSpec);
+            response.asByteArray();
+        } finally {
+            wireBodyBytes.remove();
+        }
+        ctx.setValue(TrafficRecorder.wireBodyKey, wire.sum());
+        return response;
+    }
+
+    // closes the pooled connections of a client built by Create
+    public static void Shutdown(HttpClient client) {
+        if (client instanceof FixedInterceptorsClient)
+            ((FixedInterceptorsClient) client).pool.shutdown();
+    }
+
+    public static long newConnections() {
+        return newConnections.get();
+    }
+
+    public static long reusedConnections() {
+        return reusedConnections.get();
+    }
+
+    private static class CountingEntity extends HttpEntityWrapper {
+        private final LongAdder counter;
+
+        CountingEntity(HttpEntity wrapped, LongAdder counter) {
+            super(wrapped);
+            this.counter = counter;
+        }
+
+        @Override
+        public InputStream getContent() throws IOException {
+            return new FilterInputStream(super.getContent()) {
+                @Override
+                public int read() throws IOException {
+                    int b = super.read();
+                    if (b >= 0)
+                        counter.increment();
+                    return b;
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) throws IOException {
+                    int n = super.read(buffer, offset, length);
+                    if (n > 0)
+                        counter.add(n);
+                    return n;
+                }
+            };
+        }
+    }
+
+    // once built, adding, removing or clearing interceptors does nothing
+    private static class FixedInterceptorsClient extends DefaultHttpClient {
+        private final PoolingClientConnectionManager pool;
+        private volatile boolean built;
+
+        FixedInterceptorsClient(PoolingClientConnectionManager pool) {
+            super(pool);
+            this.pool = pool;
+        }
+
+        @Override
+        public synchronized void addRequestInterceptor(HttpRequestInterceptor interceptor) {
+            if (!built)
+                super.addRequestInterceptor(interceptor);
+        }
+
+        @Override
+        public synchronized void addRequestInterceptor(HttpRequestInterceptor interceptor, int index) {
+            if (!built)
+                super.addRequestInterceptor(interceptor, index);
+        }
+
+        @Override
+        public synchronized void addResponseInterceptor(HttpResponseInterceptor interceptor) {
+            if (!built)
+                super.addResponseInterceptor(interceptor);
+        }
+
+        @Override
+        public synchronized void addResponseInterceptor(HttpResponseInterceptor interceptor, int index) {
+            if (!built)
+                super.addResponseInterceptor(interceptor, index);
+        }
+
+        @Override
+        public synchronized void removeRequestInterceptorByClass(Class<? extends HttpRequestInterceptor> type) {
+            if (!built)
+                super.removeRequestInterceptorByClass(type);
+        }
+
+        @Override
+        public synchronized void removeResponseInterceptorByClass(Class<? extends HttpResponseInterceptor> type) {
+            if (!built)
+                super.removeResponseInterceptorByClass(type);
+        }
+
+        @Override
+        public synchronized void clearRequestInterceptors() {
+            if (!built)
+                super.clearRequestInterceptors();
+        }
+
+        @Override
+        public synchronized void clearResponseInterceptors() {
+            if (!built)
+                super.clearResponseInterceptors();
+        }
+    }
+}
@@ -0,0 +1,234 @@
+import io.restassured.RestAssured;
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+import io.restassured.specification.RequestSpecification;
+import org.testng.ITestResult;
+import org.testng.Reporter;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+// One token bucket for every request of the run. Each request reserves a token and sleeps
+// until it is due. A 429 or an exhausted rate-limit header pauses the whole bucket until the
+// server's reset time; a 429 also halves the rate, once per pause however many requests it
+// refused. Every success wins back 1% of the configured rate. Rate 0 leaves the bucket
+// unlimited but 429s are still waited out and retried, each retry counted, validated and
+// recorded like any other request.
+public class RateLimiter implements Filter {
+    private static final long maxPauseNanos = TimeUnit.SECONDS.toNanos(60);
+    private static final long defaultPauseNanos = TimeUnit.SECONDS.toNanos(1);
+
+    private final double configuredRate;
+    private final double burst;
+    private final int maxRetries;
+
+    private double rate;
+    private double tokens;
+    private long lastRefill = System.nanoTime();
+    private long pausedUntil = lastRefill;
+
+    private final Filter retryFilter = this::Retry;
+    private final AtomicLong throttled = new AtomicLong();
+    private final AtomicLong throttledNanos = new AtomicLong();
+    private final AtomicLong tooManyRequests = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final ConcurrentMap<String, LongAdder> throttledNanosByTest = new ConcurrentHashMap<>();
+
+    public RateLimiter(double requestsPerSecond, int burst, int maxRetries) {
+        this.configuredRate = requestsPerSecond;
+        this.rate = requestsPerSecond;
+        this.burst = Math.max(1, burst);
+        this.tokens = this.burst;
+        this.maxRetries = maxRetries;
+    }
+
+    // paces each request; sits right before the network, so every attempt passes it
+    @Override
+    public Response filter(FilterableRequestSpecification requestSpec,
+            FilterableResponseSpecification responseSpec, FilterContext ctx) {
+        Acquire();
+        Response response = ctx.next(requestSpec, responseSpec);
+        Observe(response);
+        return response;
+    }
+
+    // the first filter of every spec: retries a 429 through all the filters after it
+    public Filter retrying() {
+        return retryFilter;
+    }
+
+    private Response Retry(FilterableRequestSpecification requestSpec,
+            FilterableResponseSpecification responseSpec, FilterContext ctx) {
+        Response response = ctx.next(requestSpec, responseSpec);
+        for (int attempt = 0; attempt < maxRetries && response.getStatusCode() == 429; attempt++) {
+            retries.incrementAndGet();
+            response = Resend(requestSpec);
+        }
+        return response;
+    }
+
+    // RestAssured walks a filter chain only once, so a retry is a new request for the same
+    // URI, headers and body on the same client, through the same filters after Retry
+    private Response Resend(FilterableRequestSpecification requestSpec) {
+        List<Filter> filters = new ArrayList<>(requestSpec.getDefinedFilters());
+        filters.remove(retryFilter);
+        RequestSpecification retry = RestAssured.given()
+                .config(requestSpec.getConfig())
+                .urlEncodingEnabled(false)
+                .headers(requestSpec.getHeaders())
+                .filters(filters);
+        Object body = requestSpec.getBody();
+        if (body != null)
+            retry.body(body);
+        return retry.request(requestSpec.getMethod(), requestSpec.getURI());
+    }
+
+    public double rate() {
+        return rate;
+    }
+
+    public long throttled() {
+        return throttled.get();
+    }
+
+    public long throttledMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(throttledNanos.get());
+    }
+
+    public long tooManyRequests() {
+        return tooManyRequests.get();
+    }
+
+    public long retries() {
+        return retries.get();
+    }
+
+    // tests that spent time waiting for the bucket, longest first
+    public List<String> ThrottledTests() {
+        List<Map.Entry<String, LongAdder>> entries = new ArrayList<>(throttledNanosByTest.entrySet());
+        entries.sort((a, b) -> Long.compare(b.getValue().sum(), a.getValue().sum()));
+        List<String> lines = new ArrayList<>();
+        for (Map.Entry<String, LongAdder> entry : entries)
+            lines.add(entry.getKey() + " " + TimeUnit.NANOSECONDS.toMillis(entry.getValue().sum()) + "ms");
+        return lines;
+    }
+
+    private void Acquire() {
+        long wait = Reserve();
+        if (wait <= 0)
+            return;
+
+        long deadline = System.nanoTime() + wait;
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0)
+            LockSupport.parkNanos(remaining);
+
+        throttled.incrementAndGet();
+        throttledNanos.addAndGet(wait);
+        ITestResult test = Reporter.getCurrentTestResult();
+        String name = test == null ? "(outside tests)"
+                : test.getTestClass().getRealClass().getSimpleName() + "." + test.getMethod().getMethodName();
+        throttledNanosByTest.computeIfAbsent(name, k -> new LongAdder()).add(wait);
+    }
+
+    // takes a token, possibly one not yet refilled, and returns how long to wait for it
+    private synchronized long Reserve() {
+        long now = System.nanoTime();
+        long wait = 0;
+        if (rate > 0) {
+            tokens = Math.min(burst, tokens + (now - lastRefill) / 1e9 * rate);
+            lastRefill = now;
+            tokens -= 1;
+            if (tokens < 0)
+                wait = (long) (-tokens / rate * 1e9);
+        }
+        return Math.max(wait, pausedUntil - now);
+    }
+
+    private void Observe(Response response) {
+        if (response.getStatusCode() == 429) {
+            tooManyRequests.incrementAndGet();
+            Long retryAfter = RetryAfterNanos(response.getHeader("Retry-After"));
+            Slow(retryAfter != null ? retryAfter : ResetNanos(response));
+            return;
+        }
+
+        String remaining = Header(response, "RateLimit-Remaining", "X-RateLimit-Remaining");
+        if (remaining != null && remaining.trim().equals("0")) {
+            Pause(ResetNanos(response));
+            return;
+        }
+
+        synchronized (this) {
+            if (configuredRate > 0 && rate < configuredRate)
+                rate = Math.min(configuredRate, rate + configuredRate / 100);
+        }
+    }
+
+    private synchronized void Slow(long pauseNanos) {
+        boolean paused = pausedUntil - System.nanoTime() > 0;
+        Pause(pauseNanos);
+        if (configuredRate > 0 && !paused)
+            rate = Math.max(configuredRate / 64, rate / 2);
+    }
+
+    private synchronized void Pause(long pauseNanos) {
+        long until = System.nanoTime() + Math.min(maxPauseNanos, Math.max(0, pauseNanos));
+        if (until - pausedUntil > 0)
+            pausedUntil = until;
+    }
+
+    // Retry-After is either delta-seconds or an HTTP date
+    static Long RetryAfterNanos(String value) {
+        if (value == null || value.isBlank())
+            return null;
+        try {
+            return TimeUnit.SECONDS.toNanos(Long.parseLong(value.trim()));
+        } catch (NumberFormatException e) {
+            try {
+                ZonedDateTime at = ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+                return Duration.between(ZonedDateTime.now(at.getZone()), at).toNanos();
+            } catch (DateTimeParseException ignored) {
+                return null;
+            }
+        }
+    }
+
+    // RateLimit-Reset is seconds from now; X-RateLimit-Reset is often an epoch timestamp
+    private static long ResetNanos(Response response) {
+        String reset = Header(response, "RateLimit-Reset", "X-RateLimit-Reset");
+        if (reset == null)
+            return defaultPauseNanos;
+        try {
+            long seconds = (long) Double.parseDouble(reset.trim());
+            if (seconds > 1_000_000_000L)
+                seconds -= System.currentTimeMillis() / 1000;
+            return TimeUnit.SECONDS.toNanos(seconds);
+        } catch (NumberFormatException e) {
+            return defaultPauseNanos;
+        }
+    }
+
+    private static String Header(Response response, String... names) {
+        for (String name : names) {
+            String value = response.getHeader(name);
+            if (value != null)
+                return value;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,15 @@
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Most requests (cache hits included) and bytes one invocation of a test may use. On a class
+// it applies to each of its test methods unless the method declares its own.
+// Enforced by RequestBudgetListener.
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface RequestBudget {
+    int requests() default Integer.MAX_VALUE;
+
+    long bytes() default Long.MAX_VALUE;
+}
@@ -0,0 +1,34 @@
+import org.testng.IInvokedMethod;
+import org.testng.IInvokedMethodListener;
+import org.testng.ITestResult;
+
+import java.lang.reflect.Method;
+
+// Fails a passing test whose traffic went over its @RequestBudget.
+public class RequestBudgetListener implements IInvokedMethodListener {
+
+    @Override
+    public void afterInvocation(IInvokedMethod method, ITestResult result) {
+        if (!method.isTestMethod() || result.getStatus() != ITestResult.SUCCESS)
+            return;
+
+        Method test = method.getTestMethod().getConstructorOrMethod().getMethod();
+        RequestBudget budget = test.getAnnotation(RequestBudget.class);
+        if (budget == null)
+            budget = test.getDeclaringClass().getAnnotation(RequestBudget.class);
+        if (budget == null)
+            return;
+
+        TrafficRecorder.Traffic traffic = TrafficRecorder.Of(result);
+        String exceeded = null;
+        if (traffic.requests() > budget.requests())
+            exceeded = traffic.requests() + " requests, budget is " + budget.requests();
+        else if (traffic.bytes() > budget.bytes())
+            exceeded = traffic.bytes() + " bytes, budget is " + budget.bytes();
+
+        if (exceeded != null) {
+            result.setStatus(ITestResult.FAILURE);
+            result.setThrowable(new AssertionError("Request budget exceeded: " + exceeded + " (" + traffic + ")"));
+        }
+    }
+}
@@ -0,0 +1,32 @@
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Uniform random sample of at most `capacity` values out of however many were offered
+// (Vitter's algorithm R), so a long run keeps raw latencies in constant memory.
+public class Reservoir {
+    private final long[] values;
+    private long offered;
+
+    public Reservoir(int capacity) {
+        values = new long[capacity];
+    }
+
+    public synchronized void Add(long value) {
+        if (offered < values.length) {
+            values[(int) offered] = value;
+        } else {
+            long slot = ThreadLocalRandom.current().nextLong(offered + 1);
+            if (slot < values.length)
+                values[(int) slot] = value;
+        }
+        offered++;
+    }
+
+    public synchronized long offered() {
+        return offered;
+    }
+
+    public synchronized long[] Values() {
+        return Arrays.copyOf(values, (int) Math.min(offered, values.length));
+    }
+}
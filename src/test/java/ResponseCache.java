@@ -0,0 +1,110 @@
+import io.restassured.builder.ResponseBuilder;
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Per-run cache of GET responses keyed by method, URL and Authorization header.
+// Identical requests in flight at the same time share one network call, and the
+// least recently used entry is evicted once the cache holds `capacity` responses.
+// Only 2xx responses are kept, so a transient server error or a 429 is not replayed; the
+// requests that were waiting on one get it once, and a retry goes to the network.
+public class ResponseCache implements Filter {
+    private final int capacity;
+    private final Map<String, CompletableFuture<Response>> entries;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public ResponseCache(int capacity) {
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CompletableFuture<Response>> eldest) {
+                if (size() <= ResponseCache.this.capacity)
+                    return false;
+                evictions.incrementAndGet();
+                return true;
+            }
+        };
+    }
+
+    @Override
+    public Response filter(FilterableRequestSpecification requestSpec,
+            FilterableResponseSpecification responseSpec, FilterContext ctx) {
+        if (!requestSpec.getMethod().equals("GET"))
+            return ctx.next(requestSpec, responseSpec);
+
+        String key = requestSpec.getMethod() + " " + requestSpec.getURI() + " "
+                + requestSpec.getHeaders().getValue("Authorization");
+        CompletableFuture<Response> entry;
+        CompletableFuture<Response> owned = null;
+        synchronized (entries) {
+            entry = entries.get(key);
+            if (entry == null) {
+                owned = new CompletableFuture<>();
+                entries.put(key, owned);
+            }
+        }
+
+        if (owned == null) {
+            if (entry.isDone())
+                hits.incrementAndGet();
+            else
+                coalesced.incrementAndGet();
+            try {
+                return Copy(entry.join());
+            } catch (CompletionException e) {
+                return ctx.next(requestSpec, responseSpec);
+            }
+        }
+
+        misses.incrementAndGet();
+        try {
+            Response response = ctx.next(requestSpec, responseSpec);
+            response.asByteArray();
+            owned.complete(response);
+            if (response.getStatusCode() / 100 != 2)
+                Forget(key, owned);
+            return response;
+        } catch (RuntimeException | Error e) {
+            Forget(key, owned);
+            owned.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    public long hits() {
+        return hits.get();
+    }
+
+    public long misses() {
+        return misses.get();
+    }
+
+    public long coalesced() {
+        return coalesced.get();
+    }
+
+    public long evictions() {
+        return evictions.get();
+    }
+
+    private void Forget(String key, CompletableFuture<Response> entry) {
+        synchronized (entries) {
+            entries.remove(key, entry);
+        }
+    }
+
+    private static Response Copy(Response cached) {
+        return new ResponseBuilder().clone(cached).build();
+    }
+}
@@ -0,0 +1,53 @@
+import io.restassured.RestAssured;
+import io.restassured.response.Response;
+import io.restassured.specification.RequestSpecification;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+
+// The cache together with the rate limiter's retries, in front of a stand-in and fault proxy
+// of its own, so neither the 429s nor the cache reach the rest of the suite.
+public class ResponseCacheTest {
+    private static final String token = "response-cache-test";
+
+    private InstatusStandIn standIn;
+    private FaultProxy proxy;
+
+    @BeforeClass
+    public void StartProxy() throws IOException {
+        standIn = new InstatusStandIn(token);
+        standIn.start();
+        // every second GET of pages is refused with Retry-After: 1
+        proxy = new FaultProxy(standIn.baseUrl(), FaultProxy.Faults.Parse("pages:burst=429x1/2"), 1);
+        proxy.start();
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void StopProxy() {
+        if (proxy != null)
+            proxy.stop();
+        if (standIn != null)
+            standIn.stop();
+    }
+
+    @Test
+    public void TooManyRequests_RetriedPastCache() {
+        ResponseCache cache = new ResponseCache(16);
+        RateLimiter limiter = new RateLimiter(0, 1, 2);
+        RequestSpecification spec = RestAssured.given()
+                .filters(limiter.retrying(), cache, limiter)
+                .header("Authorization", "Bearer " + token);
+
+        Assert.assertEquals(RestAssured.given(spec).get(proxy.baseUrl() + "pages?page=1").getStatusCode(), 200);
+        Response refused = RestAssured.given(spec).get(proxy.baseUrl() + "pages?page=2");
+
+        Assert.assertEquals(proxy.injected(Endpoint.PAGES).burst(), 1);
+        Assert.assertEquals(limiter.retries(), 1);
+        Assert.assertEquals(refused.getStatusCode(), 200, "The retry was answered from the cached 429");
+        Assert.assertEquals(RestAssured.given(spec).get(proxy.baseUrl() + "pages?page=2").getStatusCode(), 200);
+        Assert.assertEquals(cache.hits(), 1);
+    }
+}
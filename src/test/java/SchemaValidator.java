@@ -0,0 +1,110 @@
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.networknt.schema.JsonSchema;
+import com.networknt.schema.JsonSchemaFactory;
+import com.networknt.schema.SpecVersion;
+import com.networknt.schema.ValidationMessage;
+import io.restassured.filter.FilterContext;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+// Checks every 2xx body against the JSON Schema of its endpoint (src/test/resources/schemas).
+// The schemas are compiled once, on first use, into validators that are safe to share
+// between threads; each body is parsed once and validated in one pass over the tree.
+// A list endpoint's schema is an array of its entity's schema.
+public class SchemaValidator {
+    private static final int maxReportedViolations = 10;
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+    private static final Map<Endpoint, JsonSchema> schemas = Compile();
+    private static final AtomicLong validated = new AtomicLong();
+    private static final AtomicLong violations = new AtomicLong();
+
+    public static Response Validate(FilterableRequestSpecification requestSpec,
+            FilterableResponseSpecification responseSpec, FilterContext ctx) {
+        Response response = ctx.next(requestSpec, responseSpec);
+        // the schemas describe what the routes list and show, not what a write sends back
+        if (response.getStatusCode() / 100 == 2 && requestSpec.getMethod().equals("GET"))
+            Validate(Endpoint.Of(requestSpec.getURI()), response.asByteArray());
+        return response;
+    }
+
+    public static void Validate(Endpoint endpoint, byte[] body) {
+        JsonSchema schema = schemas.get(endpoint);
+        if (schema == null)
+            return;
+
+        validated.incrementAndGet();
+        Set<ValidationMessage> messages;
+        try {
+            messages = schema.validate(mapper.readTree(body));
+        } catch (IOException e) {
+            violations.incrementAndGet();
+            throw new AssertionError(endpoint.label + " response is not JSON: " + e.getMessage());
+        }
+        if (!messages.isEmpty()) {
+            violations.incrementAndGet();
+            throw new AssertionError(endpoint.label + " response does not match its schema: " + messages.stream()
+                    .limit(maxReportedViolations).map(ValidationMessage::getMessage).collect(Collectors.toList()));
+        }
+    }
+
+    // endpoints with a compiled schema; the first call compiles them
+    public static int endpoints() {
+        return schemas.size();
+    }
+
+    public static long validated() {
+        return validated.get();
+    }
+
+    public static long violations() {
+        return violations.get();
+    }
+
+    private static Map<Endpoint, JsonSchema> Compile() {
+        JsonSchemaFactory factory = JsonSchemaFactory.getInstance(SpecVersion.VersionFlag.V7);
+        JsonNode page = Load("page");
+        JsonNode component = Load("component");
+        JsonNode incident = Load("incident");
+
+        Map<Endpoint, JsonSchema> compiled = new EnumMap<>(Endpoint.class);
+        compiled.put(Endpoint.PAGES, factory.getSchema(ListOf(page)));
+        compiled.put(Endpoint.COMPONENTS, factory.getSchema(ListOf(component)));
+        compiled.put(Endpoint.COMPONENT, factory.getSchema(component));
+        compiled.put(Endpoint.INCIDENTS, factory.getSchema(ListOf(incident)));
+        compiled.put(Endpoint.INCIDENT, factory.getSchema(incident));
+        compiled.values().forEach(JsonSchema::initializeValidators);
+        return compiled;
+    }
+
+    private static JsonNode ListOf(JsonNode item) {
+        ObjectNode list = mapper.createObjectNode();
+        list.set("$schema", item.get("$schema"));
+        list.put("type", "array");
+        list.set("items", item);
+        return list;
+    }
+
+    private static JsonNode Load(String name) {
+        String resource = "/schemas/" + name + ".json";
+        try (InputStream in = SchemaValidator.class.getResourceAsStream(resource)) {
+            if (in == null)
+                throw new IllegalStateException("Missing schema " + resource);
+            return mapper.readTree(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
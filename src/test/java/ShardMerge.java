@@ -0,0 +1,126 @@
+import com.fasterxml.jackson.databind.JsonNode;
+import org.testng.Assert;
+import org.testng.Reporter;
+import org.testng.annotations.Optional;
+import org.testng.annotations.Parameters;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Entry point of merge.xml: mvn test -DsuiteXmlFile=merge.xml, once every shard of a
+// sharded run has put its report into shardDir. Combines them into one report, updates
+// the duration history the next split is balanced with and fails if a shard is missing
+// or any test failed.
+public class ShardMerge {
+
+    @Test
+    @Parameters({"shardDir", "shardDurations", "shardMergedReport"})
+    public void Merge(@Optional("target/shards") String shardDir,
+            @Optional("shard-durations.json") String shardDurations,
+            @Optional("target/shards/merged.json") String mergedReport) throws IOException {
+        List<JsonNode> shards = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(Path.of(shardDir), Shards.reportPrefix + "*.json")) {
+            for (Path file : files)
+                shards.add(Shards.ReadReport(file));
+        }
+        Assert.assertFalse(shards.isEmpty(), "No shard reports in " + shardDir);
+
+        int count = shards.get(0).get("shardCount").asInt();
+        boolean[] seen = new boolean[count];
+        Map<String, String> status = new TreeMap<>();
+        Map<String, Long> durations = Shards.ReadDurations(Path.of(shardDurations));
+        Map<String, Integer> shardOf = new HashMap<>();
+        Map<String, Long> measured = new HashMap<>();
+        Map<Endpoint, LatencyHistogram> latency = new EnumMap<>(Endpoint.class);
+        long requests = 0;
+        long slowestShardMillis = 0;
+        long totalMillis = 0;
+
+        for (JsonNode shard : shards) {
+            Assert.assertEquals(shard.get("shardCount").asInt(), count, "Shard reports of different splits in " + shardDir);
+            int index = shard.get("shardIndex").asInt();
+            seen[index] = true;
+            long elapsed = shard.get("elapsedMillis").asLong();
+            slowestShardMillis = Math.max(slowestShardMillis, elapsed);
+            totalMillis += elapsed;
+
+            int tests = 0;
+            for (JsonNode test : shard.get("tests")) {
+                String name = test.get("name").asText();
+                // every shard checks the latency budgets of its own requests
+                if (name.startsWith(LatencyBudgetTest.class.getSimpleName() + "."))
+                    name += "[shard " + index + "]";
+                // every invocation of a data-provider method has the method's name, and Shards
+                // keeps them together, so only a name in two reports ran twice
+                Integer other = shardOf.putIfAbsent(name, index);
+                Assert.assertTrue(other == null || other == index, name + " ran in shards " + other + " and " + index);
+                status.merge(name, test.get("status").asText(), ShardMerge::Worse);
+                if (!test.get("status").asText().equals("skipped"))
+                    measured.merge(name, test.get("millis").asLong(), Long::sum);
+                tests++;
+            }
+            shard.get("latencyMicros").fields().forEachRemaining(e -> {
+                LatencyHistogram histogram = latency.computeIfAbsent(Endpoint.Named(e.getKey()), k -> new LatencyHistogram());
+                e.getValue().forEach(micros -> histogram.Record(micros.asLong()));
+            });
+            requests += shard.get("traffic").get("requests").asLong();
+            Reporter.log(String.format("shard %d: %d tests in %.1fs", index, tests, elapsed / 1000.0), true);
+        }
+        for (int i = 0; i < count; i++)
+            Assert.assertTrue(seen[i], "Shard " + i + " of " + count + " has no report in " + shardDir);
+
+        durations.putAll(measured);
+        Shards.WriteDurations(Path.of(shardDurations), durations);
+        WriteMerged(Path.of(mergedReport), count, status, latency, requests, slowestShardMillis);
+
+        List<String> failed = new ArrayList<>();
+        status.forEach((name, result) -> {
+            if (result.equals("failed"))
+                failed.add(name);
+        });
+        Reporter.log(String.format("Merged %d shards: %d tests, %d failed, %d requests, %.1fs wall clock for %.1fs of work",
+                count, status.size(), failed.size(), requests, slowestShardMillis / 1000.0, totalMillis / 1000.0), true);
+        for (Map.Entry<Endpoint, LatencyHistogram> entry : latency.entrySet())
+            Reporter.log("  " + LatencyRecorder.Format(entry.getKey().label, entry.getValue()), true);
+        Assert.assertTrue(failed.isEmpty(), "Failed in their shards: " + failed);
+    }
+
+    // failed over passed over skipped, for the invocations of one method
+    private static String Worse(String a, String b) {
+        if (a.equals("failed") || b.equals("failed"))
+            return "failed";
+        if (a.equals("passed") || b.equals("passed"))
+            return "passed";
+        return "skipped";
+    }
+
+    private static void WriteMerged(Path path, int count, Map<String, String> status,
+            Map<Endpoint, LatencyHistogram> latency, long requests, long wallMillis) throws IOException {
+        Map<String, Object> merged = new TreeMap<>();
+        merged.put("shardCount", count);
+        merged.put("wallClockMillis", wallMillis);
+        merged.put("requests", requests);
+        merged.put("tests", status);
+        Map<String, Map<String, Long>> percentiles = new TreeMap<>();
+        latency.forEach((endpoint, histogram) -> {
+            Map<String, Long> values = new TreeMap<>();
+            values.put("count", histogram.count());
+            values.put("p50Micros", histogram.Percentile(50));
+            values.put("p95Micros", histogram.Percentile(95));
+            values.put("p99Micros", histogram.Percentile(99));
+            values.put("maxMicros", histogram.max());
+            percentiles.put(endpoint.label, values);
+        });
+        merged.put("latency", percentiles);
+        Shards.WriteJson(path, merged);
+    }
+}
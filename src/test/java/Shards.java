@@ -0,0 +1,210 @@
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.testng.IMethodInstance;
+import org.testng.IMethodInterceptor;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.ITest;
+import org.testng.ITestContext;
+import org.testng.ITestResult;
+import org.testng.Reporter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+// Splits the test methods of a run over shardCount workers and keeps those of shardIndex.
+// Every worker computes the same split: methods are taken longest first by their duration
+// in the shardDurations history (unknown ones count as the average) and each goes to the
+// shard with the least work so far. At the end of a sharded run the worker writes its
+// results, latency samples and traffic to shardDir for ShardMerge.
+//
+// shardCount and shardIndex come from testng.xml unless set as system properties, so
+// every worker runs the same suite: mvn test -DshardCount=4 -DshardIndex=0
+public class Shards implements IMethodInterceptor, ISuiteListener {
+    static final String reportPrefix = "shard-";
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private long startMillis;
+
+    @Override
+    public List<IMethodInstance> intercept(List<IMethodInstance> methods, ITestContext context) {
+        Function<String, String> xml = context.getCurrentXmlTest()::getParameter;
+        int count = Integer.parseInt(Parameter(xml, "shardCount", "1"));
+        int index = Integer.parseInt(Parameter(xml, "shardIndex", "0"));
+        if (count <= 1)
+            return methods;
+        if (index < 0 || index >= count)
+            throw new IllegalArgumentException("shardIndex " + index + " is not below shardCount " + count);
+
+        // each shard checks the latency budgets against its own requests
+        List<IMethodInstance> kept = new ArrayList<>();
+        List<IMethodInstance> split = new ArrayList<>();
+        for (IMethodInstance method : methods) {
+            if (method.getMethod().getRealClass() == LatencyBudgetTest.class)
+                kept.add(method);
+            else
+                split.add(method);
+        }
+
+        Map<String, Long> durations = ReadDurations(Path.of(Parameter(xml, "shardDurations", "")));
+        Map<IMethodInstance, Integer> assigned = Assign(split, durations, count);
+        for (IMethodInstance method : split) {
+            if (assigned.get(method) == index)
+                kept.add(method);
+        }
+        Reporter.log("Shard " + index + " of " + count + ": " + kept.size() + " of " + methods.size()
+                + " test methods", true);
+        return kept;
+    }
+
+    // longest processing time first: deterministic because ties are broken by name and shard
+    static Map<IMethodInstance, Integer> Assign(List<IMethodInstance> methods, Map<String, Long> durations,
+            int count) {
+        long known = durations.values().stream().mapToLong(Long::longValue).sum();
+        long fallback = durations.isEmpty() ? 1 : Math.max(1, known / durations.size());
+
+        List<IMethodInstance> order = new ArrayList<>(methods);
+        order.sort(Comparator.<IMethodInstance>comparingLong(m -> -durations.getOrDefault(Name(m), fallback))
+                .thenComparing(Shards::Name));
+        long[] load = new long[count];
+        Map<IMethodInstance, Integer> assigned = new HashMap<>();
+        for (IMethodInstance method : order) {
+            int shard = 0;
+            for (int i = 1; i < count; i++) {
+                if (load[i] < load[shard])
+                    shard = i;
+            }
+            load[shard] += durations.getOrDefault(Name(method), fallback);
+            assigned.put(method, shard);
+        }
+        return assigned;
+    }
+
+    @Override
+    public void onStart(ISuite suite) {
+        startMillis = System.currentTimeMillis();
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        int count = Integer.parseInt(Parameter(suite::getParameter, "shardCount", "1"));
+        if (count <= 1)
+            return;
+        int index = Integer.parseInt(Parameter(suite::getParameter, "shardIndex", "0"));
+        Path report = Path.of(Parameter(suite::getParameter, "shardDir", "target/shards"))
+                .resolve(reportPrefix + index + "-of-" + count + ".json");
+        try {
+            WriteReport(report, suite, index, count);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        Reporter.log("Shard report written to " + report, true);
+    }
+
+    private void WriteReport(Path path, ISuite suite, int index, int count) throws IOException {
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        try (JsonGenerator json = new JsonFactory().createGenerator(path.toFile(), JsonEncoding.UTF8)) {
+            json.writeStartObject();
+            json.writeNumberField("shardIndex", index);
+            json.writeNumberField("shardCount", count);
+            json.writeNumberField("elapsedMillis", System.currentTimeMillis() - startMillis);
+
+            json.writeArrayFieldStart("tests");
+            for (ITestResult result : Results(suite)) {
+                json.writeStartObject();
+                json.writeStringField("name", TrafficRecorder.Name(result));
+                json.writeStringField("status", Status(result));
+                json.writeNumberField("millis", result.getEndMillis() - result.getStartMillis());
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+
+            json.writeObjectFieldStart("latencyMicros");
+            for (Map.Entry<Endpoint, long[]> entry : LatencyRecorder.Samples().entrySet()) {
+                json.writeFieldName(entry.getKey().label);
+                json.writeArray(entry.getValue(), 0, entry.getValue().length);
+            }
+            json.writeEndObject();
+
+            json.writeFieldName("traffic");
+            TrafficRecorder.Total().Write(json);
+            json.writeEndObject();
+        }
+    }
+
+    private static List<ITestResult> Results(ISuite suite) {
+        List<ITestResult> results = new ArrayList<>();
+        suite.getResults().values().forEach(result -> {
+            ITestContext context = result.getTestContext();
+            results.addAll(context.getPassedTests().getAllResults());
+            results.addAll(context.getFailedTests().getAllResults());
+            results.addAll(context.getSkippedTests().getAllResults());
+        });
+        return results;
+    }
+
+    private static String Status(ITestResult result) {
+        switch (result.getStatus()) {
+            case ITestResult.SUCCESS:
+                return "passed";
+            case ITestResult.SKIP:
+                return "skipped";
+            default:
+                return "failed";
+        }
+    }
+
+    // same naming as TrafficRecorder.Name, which only sees results
+    static String Name(IMethodInstance method) {
+        String name = method.getMethod().getRealClass().getSimpleName() + "." + method.getMethod().getMethodName();
+        Object instance = method.getInstance();
+        return instance instanceof ITest && ((ITest) instance).getTestName() != null
+                ? name + "[" + ((ITest) instance).getTestName() + "]" : name;
+    }
+
+    // test name -> milliseconds; empty when there is no history yet
+    static Map<String, Long> ReadDurations(Path path) {
+        Map<String, Long> durations = new TreeMap<>();
+        if (path.toString().isEmpty() || !Files.exists(path))
+            return durations;
+        try {
+            mapper.readTree(path.toFile()).fields().forEachRemaining(e -> durations.put(e.getKey(), e.getValue().asLong()));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read shard durations " + path, e);
+        }
+        return durations;
+    }
+
+    static void WriteDurations(Path path, Map<String, Long> durations) throws IOException {
+        WriteJson(path, new TreeMap<>(durations));
+    }
+
+    static void WriteJson(Path path, Object value) throws IOException {
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        mapper.writerWithDefaultPrettyPrinter().writeValue(path.toFile(), value);
+    }
+
+    static JsonNode ReadReport(Path path) throws IOException {
+        return mapper.readTree(path.toFile());
+    }
+
+    static String Parameter(Function<String, String> xml, String name, String fallback) {
+        String value = System.getProperty(name);
+        if (value == null || value.isBlank())
+            value = xml.apply(name);
+        return value == null ? fallback : value;
+    }
+}
@@ -0,0 +1,226 @@
+import jdk.jfr.consumer.RecordingStream;
+import org.testng.ITestResult;
+import org.testng.Reporter;
+import org.testng.TestListenerAdapter;
+import org.testng.TestNG;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToDoubleFunction;
+
+// Runs a whole suite file over and over in this JVM for a fixed time. After every
+// iteration it forces a GC and samples retained heap, open file descriptors and sockets,
+// live platform and virtual threads and the median latency of the iteration. The JVM only
+// lists platform threads, so virtual ones are counted from JFR's start and end events,
+// which arrive up to a second late. Once the warm-up
+// iterations are dropped, each series gets a Theil-Sen slope, which a few outliers
+// cannot move. A resource leaks when that slope, projected over the iterations measured,
+// grows by more than both its absolute floor and maxGrowth of where it started.
+public class SoakRunner {
+    static final double warmUpFraction = 0.25;
+    static final int minMeasuredIterations = 5;
+
+    private static final Path fdDirectory = Path.of("/proc/self/fd");
+
+    private final String suite;
+    private final long durationNanos;
+    private final double maxGrowth;
+    private final List<Sample> samples = new ArrayList<>();
+    private final AtomicLong virtualThreads = new AtomicLong();
+    private int failedIterations;
+
+    public SoakRunner(String suite, int durationSeconds, double maxGrowth) {
+        this.suite = suite;
+        this.durationNanos = TimeUnit.SECONDS.toNanos(durationSeconds);
+        this.maxGrowth = maxGrowth;
+    }
+
+    public void Run() {
+        try (RecordingStream events = new RecordingStream()) {
+            events.enable("jdk.VirtualThreadStart");
+            events.enable("jdk.VirtualThreadEnd");
+            events.onEvent("jdk.VirtualThreadStart", event -> virtualThreads.incrementAndGet());
+            events.onEvent("jdk.VirtualThreadEnd", event -> virtualThreads.decrementAndGet());
+            events.startAsync();
+            Iterate();
+        }
+    }
+
+    private void Iterate() {
+        long start = System.nanoTime();
+        ITestResult outer = Reporter.getCurrentTestResult();
+        while (System.nanoTime() - start < durationNanos) {
+            TestListenerAdapter results = new TestListenerAdapter();
+            TestNG testng = new TestNG(false);
+            testng.setTestSuites(List.of(suite));
+            testng.setOutputDirectory("target/soak-output");
+            testng.setVerbose(0);
+            testng.addListener(results);
+            try {
+                testng.run();
+            } finally {
+                Reporter.setCurrentTestResult(outer);
+            }
+
+            int failed = results.getFailedTests().size() + results.getConfigurationFailures().size();
+            if (failed > 0)
+                failedIterations++;
+            Sample sample = Sample.Take(samples.size() + 1, System.nanoTime() - start, failed, virtualThreads.get());
+            samples.add(sample);
+            Reporter.log(sample.toString(), true);
+        }
+    }
+
+    public List<Sample> samples() {
+        return samples;
+    }
+
+    public int failedIterations() {
+        return failedIterations;
+    }
+
+    // one line per leaking series; empty when there are too few iterations to tell
+    public List<String> Leaks() {
+        List<String> leaks = new ArrayList<>();
+        Check(leaks, "heap", "MB", 16, s -> s.heapBytes / (1024.0 * 1024));
+        Check(leaks, "file descriptors", "", 8, s -> s.fileDescriptors);
+        Check(leaks, "sockets", "", 4, s -> s.sockets);
+        Check(leaks, "threads", "", 4, s -> s.threads);
+        Check(leaks, "virtual threads", "", 16, s -> s.virtualThreads);
+        Check(leaks, "median latency", "ms", 5, s -> s.medianLatencyMicros / 1000.0);
+        return leaks;
+    }
+
+    public boolean conclusive() {
+        return Measured().size() >= minMeasuredIterations;
+    }
+
+    public void WriteReport(Path path) throws IOException {
+        if (path.getParent() != null)
+            Files.createDirectories(path.getParent());
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(path))) {
+            out.println("iteration,elapsedSeconds,failedTests,heapBytes,fileDescriptors,sockets,threads,virtualThreads,"
+                    + "medianLatencyMicros");
+            for (Sample s : samples)
+                out.println(s.iteration + "," + TimeUnit.NANOSECONDS.toSeconds(s.elapsedNanos) + "," + s.failedTests + ","
+                        + s.heapBytes + "," + s.fileDescriptors + "," + s.sockets + "," + s.threads + ","
+                        + s.virtualThreads + "," + s.medianLatencyMicros);
+        }
+    }
+
+    private List<Sample> Measured() {
+        return samples.subList((int) (samples.size() * warmUpFraction), samples.size());
+    }
+
+    private void Check(List<String> leaks, String name, String unit, double absoluteFloor,
+            ToDoubleFunction<Sample> metric) {
+        List<Sample> measured = Measured();
+        if (measured.size() < minMeasuredIterations || metric.applyAsDouble(measured.get(0)) < 0)
+            return;
+
+        double[] x = new double[measured.size()];
+        double[] y = new double[measured.size()];
+        for (int i = 0; i < x.length; i++) {
+            x[i] = measured.get(i).iteration;
+            y[i] = metric.applyAsDouble(measured.get(i));
+        }
+        double growth = TheilSenSlope(x, y) * (x[x.length - 1] - x[0]);
+        double initial = Median(Arrays.copyOf(y, Math.max(1, y.length / 4)));
+        if (growth > absoluteFloor && growth > maxGrowth * initial)
+            leaks.add(String.format("%s grew by %.1f%s over %d iterations (from %.1f%s)", name, growth, unit,
+                    x.length, initial, unit));
+    }
+
+    static double TheilSenSlope(double[] x, double[] y) {
+        double[] slopes = new double[x.length * (x.length - 1) / 2];
+        int n = 0;
+        for (int i = 0; i < x.length; i++) {
+            for (int j = i + 1; j < x.length; j++) {
+                if (x[j] != x[i])
+                    slopes[n++] = (y[j] - y[i]) / (x[j] - x[i]);
+            }
+        }
+        return n == 0 ? 0 : Median(Arrays.copyOf(slopes, n));
+    }
+
+    private static double Median(double[] values) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        int mid = sorted.length / 2;
+        return sorted.length % 2 == 1 ? sorted[mid] : (sorted[mid - 1] + sorted[mid]) / 2;
+    }
+
+    public static class Sample {
+        public final int iteration;
+        public final long elapsedNanos;
+        public final int failedTests;
+        public final long heapBytes;
+        public final int fileDescriptors;
+        public final int sockets;
+        public final int threads;
+        public final long virtualThreads;
+        public final long medianLatencyMicros;
+
+        private Sample(int iteration, long elapsedNanos, int failedTests, long heapBytes, int fileDescriptors,
+                int sockets, int threads, long virtualThreads, long medianLatencyMicros) {
+            this.iteration = iteration;
+            this.elapsedNanos = elapsedNanos;
+            this.failedTests = failedTests;
+            this.heapBytes = heapBytes;
+            this.fileDescriptors = fileDescriptors;
+            this.sockets = sockets;
+            this.threads = threads;
+            this.virtualThreads = virtualThreads;
+            this.medianLatencyMicros = medianLatencyMicros;
+        }
+
+        // descriptor counts are -1 where /proc/self/fd does not exist
+        static Sample Take(int iteration, long elapsedNanos, int failedTests, long virtualThreads) {
+            System.gc();
+            long heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+
+            int descriptors = -1;
+            int sockets = -1;
+            if (Files.isDirectory(fdDirectory)) {
+                descriptors = 0;
+                sockets = 0;
+                try (DirectoryStream<Path> fds = Files.newDirectoryStream(fdDirectory)) {
+                    for (Path fd : fds) {
+                        descriptors++;
+                        try {
+                            if (Files.readSymbolicLink(fd).toString().startsWith("socket:"))
+                                sockets++;
+                        } catch (IOException e) {
+                            // closed between listing and reading
+                        }
+                    }
+                } catch (IOException e) {
+                    descriptors = -1;
+                    sockets = -1;
+                }
+            }
+
+            long[] latencies = LatencyRecorder.Samples().values().stream().flatMapToLong(Arrays::stream).sorted().toArray();
+            long median = latencies.length == 0 ? 0 : latencies[latencies.length / 2];
+            return new Sample(iteration, elapsedNanos, failedTests, heap, descriptors, sockets,
+                    ManagementFactory.getThreadMXBean().getThreadCount(), virtualThreads, median);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("soak #%-4d t=%5ds failed=%-3d heap=%7.1fMB fds=%-4d sockets=%-4d threads=%-4d "
+                    + "virtual=%-5d p50=%7.1fms", iteration, TimeUnit.NANOSECONDS.toSeconds(elapsedNanos), failedTests,
+                    heapBytes / (1024.0 * 1024), fileDescriptors, sockets, threads, virtualThreads,
+                    medianLatencyMicros / 1000.0);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+import org.testng.Assert;
+import org.testng.Reporter;
+import org.testng.annotations.Optional;
+import org.testng.annotations.Parameters;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+// Entry point of soak.xml: mvn test -DsuiteXmlFile=soak.xml
+public class SoakTest {
+
+    @Test
+    @Parameters({"soakSuite", "soakDuration", "soakMaxGrowth", "soakMaxFailedIterations", "soakReport"})
+    public void Soak(@Optional("testng.xml") String suite, @Optional("3600") int duration,
+            @Optional("0.2") double maxGrowth, @Optional("0") int maxFailedIterations,
+            @Optional("target/soak-report.csv") String report) throws IOException {
+        SoakRunner runner = new SoakRunner(suite, duration, maxGrowth);
+        runner.Run();
+        if (!report.isBlank()) {
+            runner.WriteReport(Path.of(report));
+            Reporter.log("Soak samples written to " + report, true);
+        }
+
+        Assert.assertTrue(runner.failedIterations() <= maxFailedIterations,
+                runner.failedIterations() + " of " + runner.samples().size() + " iterations had failing tests");
+        if (!runner.conclusive()) {
+            Reporter.log("Soak: " + runner.samples().size() + " iterations are too few to judge resource growth", true);
+            return;
+        }
+        List<String> leaks = runner.Leaks();
+        Assert.assertTrue(leaks.isEmpty(), "Resources grow without bound: " + leaks);
+        Reporter.log("Soak: no resource growth over " + runner.samples().size() + " iterations", true);
+    }
+}
@@ -0,0 +1,119 @@
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import io.restassured.response.Response;
+import org.testng.Assert;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+// Checks a JSON list body token by token instead of materializing it through JsonPath.
+// Only the top-level fields it was told about are read; nested values are skipped, and an
+// element without one of the enum fields is a violation.
+public class StreamingListValidator {
+    public static final Pattern cuid = Pattern.compile("c[0-9a-z]{19,31}");
+
+    private static final JsonFactory factory = new JsonFactory();
+
+    private final Map<String, Set<String>> enums = new HashMap<>();
+    private Pattern idFormat;
+
+    public StreamingListValidator Enum(String field, Collection<String> allowed) {
+        enums.put(field, new HashSet<>(allowed));
+        return this;
+    }
+
+    public StreamingListValidator IdFormat(Pattern format) {
+        idFormat = format;
+        return this;
+    }
+
+    public Result Validate(Response response) {
+        return Validate(response.asInputStream());
+    }
+
+    public Result Validate(InputStream body) {
+        Result result = new Result();
+        try (JsonParser parser = factory.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                result.violations.add("body is not a JSON array");
+                return result;
+            }
+
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token != JsonToken.START_OBJECT) {
+                    result.violations.add("element " + result.count + " is not an object");
+                    parser.skipChildren();
+                } else {
+                    ValidateElement(parser, result);
+                }
+                result.count++;
+            }
+        } catch (IOException e) {
+            result.violations.add("malformed JSON: " + e.getMessage());
+        }
+        return result;
+    }
+
+    public static int Count(Response response) {
+        return new StreamingListValidator().Validate(response).AssertValid().count();
+    }
+
+    private void ValidateElement(JsonParser parser, Result result) throws IOException {
+        Set<String> missing = new HashSet<>(enums.keySet());
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            Set<String> allowed = enums.get(field);
+            missing.remove(field);
+
+            if (allowed != null) {
+                String text = value == JsonToken.VALUE_STRING ? parser.getText() : null;
+                if (!allowed.contains(text))
+                    result.violations.add("element " + result.count + ": " + field + " " + text + " not in " + allowed);
+            } else if (field.equals("id")) {
+                String text = value == JsonToken.VALUE_STRING ? parser.getText() : null;
+                if (idFormat != null && (text == null || !idFormat.matcher(text).matches()))
+                    result.violations.add("element " + result.count + ": malformed id " + text);
+                if (text != null)
+                    result.ids.add(text);
+            }
+            parser.skipChildren();
+        }
+        for (String field : missing)
+            result.violations.add("element " + result.count + ": " + field + " missing");
+    }
+
+    public static class Result {
+        private final List<String> violations = new ArrayList<>();
+        private final List<String> ids = new ArrayList<>();
+        private int count;
+
+        public int count() {
+            return count;
+        }
+
+        // string ids of the top-level elements, in body order
+        public List<String> ids() {
+            return ids;
+        }
+
+        public List<String> violations() {
+            return violations;
+        }
+
+        public Result AssertValid() {
+            Assert.assertTrue(violations.isEmpty(), violations.toString());
+            return this;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+import java.util.EnumMap;
+import java.util.Map;
+
+// How long a request may take to connect and to wait for its response. The connect timeout
+// covers every route; read timeouts are per endpoint, configured as endpoint=ms pairs
+// where * sets the default for endpoints not named.
+public class Timeouts {
+    public static final int defaultConnectMillis = 5_000;
+    public static final int defaultReadMillis = 15_000;
+
+    private final int connectMillis;
+    private final int defaultRead;
+    private final Map<Endpoint, Integer> readMillis;
+
+    private Timeouts(int connectMillis, int defaultRead, Map<Endpoint, Integer> readMillis) {
+        this.connectMillis = connectMillis;
+        this.defaultRead = defaultRead;
+        this.readMillis = readMillis;
+    }
+
+    public static Timeouts Defaults() {
+        return new Timeouts(defaultConnectMillis, defaultReadMillis, new EnumMap<>(Endpoint.class));
+    }
+
+    // readTimeouts such as "*=10000,incidents=20000"; 0 waits forever
+    public static Timeouts Parse(int connectMillis, String readTimeouts) {
+        int defaultRead = defaultReadMillis;
+        Map<Endpoint, Integer> readMillis = new EnumMap<>(Endpoint.class);
+        for (String timeout : readTimeouts.split(",")) {
+            if (timeout.isBlank())
+                continue;
+            String[] parts = timeout.trim().split("[:=]");
+            if (parts.length != 2)
+                throw new IllegalArgumentException("Read timeout must look like endpoint=15000, got " + timeout);
+
+            int millis = Integer.parseInt(parts[1].trim());
+            if (parts[0].trim().equals("*"))
+                defaultRead = millis;
+            else
+                readMillis.put(Endpoint.Named(parts[0].trim()), millis);
+        }
+        return new Timeouts(connectMillis, defaultRead, readMillis);
+    }
+
+    public int connectMillis() {
+        return connectMillis;
+    }
+
+    public int readMillis(Endpoint endpoint) {
+        return readMillis.getOrDefault(endpoint, defaultRead);
+    }
+
+    @Override
+    public String toString() {
+        return "connect " + connectMillis + "ms, read " + defaultRead + "ms" + (readMillis.isEmpty() ? "" : " " + readMillis);
+    }
+}
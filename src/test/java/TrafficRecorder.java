@@ -0,0 +1,226 @@
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import io.restassured.filter.FilterContext;
+import io.restassured.http.Header;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+import org.testng.ITestResult;
+import org.testng.Reporter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Requests, bytes and wire time per test method. Request() is the first filter of every
+// spec after the 429 retries and sees each call a test makes, retries included; Wire()
+// sits right before the network and marks the calls that reached it. A call that never
+// reached the network was either replayed from a cassette or, failing that, served by
+// the response cache. Bytes are status or request line, headers and decoded body as the
+// client sees them; response bodies are also counted as sent, before decompression, per
+// test and per endpoint.
+public class TrafficRecorder {
+    static final String wireKey = "traffic.wireNanos";
+    static final String wireBodyKey = "traffic.wireBodyBytes";
+    static final String replayedKey = "traffic.replayed";
+    static final String attribute = "traffic";
+
+    private static final ConcurrentMap<String, Traffic> byTest = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<Endpoint, Traffic> byEndpoint = new ConcurrentHashMap<>();
+
+    public static Response Request(FilterableRequestSpecification requestSpec,
+            FilterableResponseSpecification responseSpec, FilterContext ctx) {
+        Response response = ctx.next(requestSpec, responseSpec);
+
+        ITestResult test = Reporter.getCurrentTestResult();
+        Traffic named = byTest.computeIfAbsent(Name(test), k -> new Traffic());
+        Traffic endpoint = byEndpoint.computeIfAbsent(Endpoint.Of(requestSpec.getURI()), k -> new Traffic());
+        Traffic own = test == null ? null : Of(test);
+        for (Traffic traffic : own == null ? new Traffic[]{named, endpoint} : new Traffic[]{named, endpoint, own}) {
+            traffic.requests.increment();
+            if (ctx.hasValue(wireKey)) {
+                traffic.network.increment();
+                traffic.wireNanos.add(ctx.<Long>getValue(wireKey));
+                traffic.requestBytes.add(RequestBytes(requestSpec));
+                traffic.responseBytes.add(ResponseBytes(response));
+                long body = response.asByteArray().length;
+                traffic.bodyBytes.add(body);
+                traffic.wireBodyBytes.add(ctx.hasValue(wireBodyKey) ? ctx.<Long>getValue(wireBodyKey) : body);
+            } else if (ctx.hasValue(replayedKey)) {
+                traffic.replayed.increment();
+            } else {
+                traffic.cacheHits.increment();
+            }
+        }
+        return response;
+    }
+
+    public static Response Wire(FilterableRequestSpecification requestSpec,
+            FilterableResponseSpecification responseSpec, FilterContext ctx) {
+        long start = System.nanoTime();
+        Response response = ctx.next(requestSpec, responseSpec);
+        response.asByteArray();
+        ctx.setValue(wireKey, System.nanoTime() - start);
+        return response;
+    }
+
+    // traffic of one test invocation, kept on its result for RequestBudgetListener
+    public static Traffic Of(ITestResult test) {
+        synchronized (test) {
+            Traffic traffic = (Traffic) test.getAttribute(attribute);
+            if (traffic == null) {
+                traffic = new Traffic();
+                test.setAttribute(attribute, traffic);
+            }
+            return traffic;
+        }
+    }
+
+    public static void Reset() {
+        byTest.clear();
+        byEndpoint.clear();
+    }
+
+    public static Traffic Total() {
+        Traffic total = new Traffic();
+        byTest.values().forEach(total::Add);
+        return total;
+    }
+
+    public static Map<Endpoint, Traffic> ByEndpoint() {
+        return new TreeMap<>(byEndpoint);
+    }
+
+    public static void WriteReport(Path path) throws IOException {
+        if (path.getParent() != null)
+            Files.createDirectories(path.getParent());
+        try (JsonGenerator json = new JsonFactory().createGenerator(path.toFile(), JsonEncoding.UTF8)) {
+            json.useDefaultPrettyPrinter();
+            json.writeStartObject();
+            json.writeFieldName("total");
+            Total().Write(json);
+            json.writeObjectFieldStart("endpoints");
+            for (Map.Entry<Endpoint, Traffic> entry : ByEndpoint().entrySet()) {
+                json.writeFieldName(entry.getKey().label);
+                entry.getValue().Write(json);
+            }
+            json.writeEndObject();
+            json.writeObjectFieldStart("tests");
+            for (Map.Entry<String, Traffic> entry : new TreeMap<>(byTest).entrySet()) {
+                json.writeFieldName(entry.getKey());
+                entry.getValue().Write(json);
+            }
+            json.writeEndObject();
+            json.writeEndObject();
+        }
+    }
+
+    // Class.method, with the instance name of factory-made tests such as PaginationContract
+    static String Name(ITestResult test) {
+        if (test == null)
+            return "(outside tests)";
+        String name = test.getTestClass().getRealClass().getSimpleName() + "." + test.getMethod().getMethodName();
+        return test.getTestName() == null ? name : name + "[" + test.getTestName() + "]";
+    }
+
+    private static long RequestBytes(FilterableRequestSpecification requestSpec) {
+        long bytes = (requestSpec.getMethod() + " " + requestSpec.getURI() + " HTTP/1.1\r\n\r\n").length();
+        for (Header header : requestSpec.getHeaders())
+            bytes += header.getName().length() + header.getValue().length() + 4;
+        Object body = requestSpec.getBody();
+        if (body instanceof byte[])
+            bytes += ((byte[]) body).length;
+        else if (body != null)
+            bytes += body.toString().getBytes(StandardCharsets.UTF_8).length;
+        return bytes;
+    }
+
+    private static long ResponseBytes(Response response) {
+        long bytes = response.getStatusLine().length() + 4;
+        for (Header header : response.getHeaders())
+            bytes += header.getName().length() + header.getValue().length() + 4;
+        return bytes + response.asByteArray().length;
+    }
+
+    public static class Traffic {
+        final LongAdder requests = new LongAdder();
+        final LongAdder network = new LongAdder();
+        final LongAdder cacheHits = new LongAdder();
+        final LongAdder replayed = new LongAdder();
+        final LongAdder requestBytes = new LongAdder();
+        final LongAdder responseBytes = new LongAdder();
+        final LongAdder bodyBytes = new LongAdder();
+        final LongAdder wireBodyBytes = new LongAdder();
+        final LongAdder wireNanos = new LongAdder();
+
+        public long requests() {
+            return requests.sum();
+        }
+
+        public long network() {
+            return network.sum();
+        }
+
+        public long cacheHits() {
+            return cacheHits.sum();
+        }
+
+        public long bytes() {
+            return requestBytes.sum() + responseBytes.sum();
+        }
+
+        // response bodies after decompression
+        public long bodyBytes() {
+            return bodyBytes.sum();
+        }
+
+        // response bodies as they came off the connection
+        public long wireBodyBytes() {
+            return wireBodyBytes.sum();
+        }
+
+        public long wireMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(wireNanos.sum());
+        }
+
+        void Add(Traffic other) {
+            requests.add(other.requests.sum());
+            network.add(other.network.sum());
+            cacheHits.add(other.cacheHits.sum());
+            replayed.add(other.replayed.sum());
+            requestBytes.add(other.requestBytes.sum());
+            responseBytes.add(other.responseBytes.sum());
+            bodyBytes.add(other.bodyBytes.sum());
+            wireBodyBytes.add(other.wireBodyBytes.sum());
+            wireNanos.add(other.wireNanos.sum());
+        }
+
+        void Write(JsonGenerator json) throws IOException {
+            json.writeStartObject();
+            json.writeNumberField("requests", requests.sum());
+            json.writeNumberField("networkRequests", network.sum());
+            json.writeNumberField("cacheHits", cacheHits.sum());
+            json.writeNumberField("replayed", replayed.sum());
+            json.writeNumberField("requestBytes", requestBytes.sum());
+            json.writeNumberField("responseBytes", responseBytes.sum());
+            json.writeNumberField("bodyBytes", bodyBytes.sum());
+            json.writeNumberField("wireBodyBytes", wireBodyBytes.sum());
+            json.writeNumberField("wireMillis", wireMillis());
+            json.writeEndObject();
+        }
+
+        @Override
+        public String toString() {
+            return requests() + " requests (" + network() + " on the network, " + cacheHits() + " cache hits, "
+                    + replayed.sum() + " replayed), " + bytes() + " bytes, " + wireMillis() + "ms on the wire";
+        }
+    }
+}
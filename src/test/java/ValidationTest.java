@@ -1,16 +1,20 @@
-import io.restassured.RestAssured;
 import io.restassured.response.Response;
 import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Parameters;
 import org.testng.annotations.Test;
 
 public class ValidationTest {
-    public static String baseUrl = "https://api.instatus.com/v1/";
-    private String testUrl = baseUrl + "pages/";
+    private String testUrl;
+
+    @BeforeClass
+    public void SetUrl() {
+        testUrl = Api.baseUrl() + "pages/";
+    }
 
     @Test
     public void withoutToken_401() {
-        Response response = RestAssured.given()
+        Response response = Api.anonymous()
                 .when()
                 .get(testUrl)
                 .then()
@@ -23,7 +27,7 @@ public class ValidationTest {
     @Test
     public void wrongToken_401() {
         String wrongBarerToken = "8d16404936e72e705980878e18c95976";
-        Response response = RestAssured.given()
+        Response response = Api.anonymous()
                 .header("Authorization", "Bearer " + wrongBarerToken)
                 .when()
                 .get(testUrl)
@@ -37,7 +41,7 @@ public class ValidationTest {
     @Test
     @Parameters("bearerToken")
     public void UppercaseToken_401(String bearerToken) {
-        Response response = RestAssured.given()
+        Response response = Api.anonymous()
                 .header("Authorization", "Bearer " + bearerToken.toUpperCase())
                 .when()
                 .get(testUrl)
@@ -49,10 +53,8 @@ public class ValidationTest {
     }
 
     @Test
-    @Parameters("bearerToken")
-    public void validToken_200(String bearerToken) {
-        Response response = RestAssured.given()
-                .header("Authorization", "Bearer " + bearerToken)
+    public void validToken_200() {
+        Response response = Api.given()
                 .when()
                 .get(testUrl)
                 .then()
@@ -64,10 +66,8 @@ public class ValidationTest {
     }
 
     @Test
-    @Parameters("bearerToken")
-    public void wrongContentType_ExpectJson(String bearerToken) {
-        Response response = RestAssured.given()
-                .header("Authorization", "Bearer " + bearerToken)
+    public void wrongContentType_ExpectJson() {
+        Response response = Api.fresh()
                 .header("Content-Type", "application/ecmascript")
                 .when()
                 .get(testUrl)
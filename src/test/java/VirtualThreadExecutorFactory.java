@@ -0,0 +1,88 @@
+import org.testng.IDynamicGraph;
+import org.testng.ISuite;
+import org.testng.ITestNGMethod;
+import org.testng.thread.IExecutorFactory;
+import org.testng.thread.ITestNGThreadPoolExecutor;
+import org.testng.thread.IThreadWorkerFactory;
+import org.testng.thread.IWorker;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// Runs TestNG's parallel workers on virtual threads. The pool size still comes from
+// thread-count in testng.xml, so it stays the limit on concurrently running tests.
+// TestNG takes it through its public switch, which Surefire does not pass on, so the
+// virtual-threads profile runs the suite through VirtualThreadSuite instead:
+//
+//   mvn test -Pvirtual-threads -DbaseUrl=local
+//
+// Under a plain mvn test the workers are TestNG's own platform threads.
+public class VirtualThreadExecutorFactory implements IExecutorFactory {
+
+    @Override
+    public ITestNGThreadPoolExecutor newSuiteExecutor(String name, IDynamicGraph<ISuite> graph,
+            IThreadWorkerFactory<ISuite> factory, int corePoolSize, int maximumPoolSize, long keepAliveTime,
+            TimeUnit unit, BlockingQueue<Runnable> workQueue, Comparator<ISuite> comparator) {
+        return new GraphExecutor<>("suite", graph, factory, corePoolSize, maximumPoolSize, keepAliveTime, unit,
+                workQueue, comparator);
+    }
+
+    @Override
+    public ITestNGThreadPoolExecutor newTestMethodExecutor(String name, IDynamicGraph<ITestNGMethod> graph,
+            IThreadWorkerFactory<ITestNGMethod> factory, int corePoolSize, int maximumPoolSize, long keepAliveTime,
+            TimeUnit unit, BlockingQueue<Runnable> workQueue, Comparator<ITestNGMethod> comparator) {
+        return new GraphExecutor<>("test", graph, factory, corePoolSize, maximumPoolSize, keepAliveTime, unit,
+                workQueue, comparator);
+    }
+
+    // Schedules the free nodes of the graph, and whatever a finished worker freed, until
+    // every node has run; then shuts down, which ends TestNG's wait for it
+    private static class GraphExecutor<T> extends ThreadPoolExecutor implements ITestNGThreadPoolExecutor {
+        private final IDynamicGraph<T> graph;
+        private final IThreadWorkerFactory<T> factory;
+        private final Comparator<T> comparator;
+
+        GraphExecutor(String prefix, IDynamicGraph<T> graph, IThreadWorkerFactory<T> factory, int corePoolSize,
+                int maximumPoolSize, long keepAliveTime, TimeUnit unit, BlockingQueue<Runnable> workQueue,
+                Comparator<T> comparator) {
+            super(corePoolSize, maximumPoolSize, keepAliveTime, unit, workQueue,
+                    Thread.ofVirtual().name(prefix + "-", 0).factory());
+            this.graph = graph;
+            this.factory = factory;
+            this.comparator = comparator;
+        }
+
+        @Override
+        public synchronized void run() {
+            if (graph.getNodeCount() > 0 && graph.getFreeNodes().isEmpty())
+                throw new IllegalStateException("No test can start, the dependencies form a cycle: " + graph.toDot());
+            Schedule();
+        }
+
+        // TestNG's work queue orders the workers themselves, so they run as they are
+        @Override
+        @SuppressWarnings("unchecked")
+        protected synchronized void afterExecute(Runnable worker, Throwable failure) {
+            graph.setStatus(((IWorker<T>) worker).getTasks(), IDynamicGraph.Status.FINISHED);
+            if (graph.getNodeCount() == graph.getNodeCountWithStatus(IDynamicGraph.Status.FINISHED))
+                shutdown();
+            else
+                Schedule();
+        }
+
+        private void Schedule() {
+            List<T> free = graph.getFreeNodes();
+            if (free.isEmpty())
+                return;
+            if (comparator != null)
+                free.sort(comparator);
+            for (IWorker<T> worker : factory.createWorkers(free)) {
+                graph.setStatus(worker.getTasks(), IDynamicGraph.Status.RUNNING);
+                execute(worker);
+            }
+        }
+    }
+}
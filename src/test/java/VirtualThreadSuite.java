@@ -0,0 +1,59 @@
+import org.testng.Assert;
+import org.testng.IInvokedMethod;
+import org.testng.IInvokedMethodListener;
+import org.testng.ITestResult;
+import org.testng.Reporter;
+import org.testng.TestListenerAdapter;
+import org.testng.TestNG;
+import org.testng.annotations.Optional;
+import org.testng.annotations.Parameters;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Entry point of virtual-threads.xml: mvn test -Pvirtual-threads. Surefire cannot hand
+// TestNG an executor factory, so this runs the suite file in-process through TestNG's own
+// API with VirtualThreadExecutorFactory, as SoakRunner runs its iterations, and fails with
+// the suite's failures.
+public class VirtualThreadSuite {
+
+    @Test
+    @Parameters("virtualThreadSuite")
+    public void RunOnVirtualThreads(@Optional("testng.xml") String suite) {
+        TestListenerAdapter results = new TestListenerAdapter();
+        AtomicInteger virtual = new AtomicInteger();
+        AtomicInteger platform = new AtomicInteger();
+        TestNG testng = new TestNG(false);
+        testng.setTestSuites(List.of(suite));
+        testng.setOutputDirectory("target/virtual-threads-output");
+        testng.setExecutorFactoryClass(VirtualThreadExecutorFactory.class.getName());
+        testng.addListener(results);
+        testng.addListener(new IInvokedMethodListener() {
+            @Override
+            public void beforeInvocation(IInvokedMethod method, ITestResult testResult) {
+                if (method.isTestMethod())
+                    (Thread.currentThread().isVirtual() ? virtual : platform).incrementAndGet();
+            }
+        });
+
+        ITestResult outer = Reporter.getCurrentTestResult();
+        try {
+            testng.run();
+        } finally {
+            Reporter.setCurrentTestResult(outer);
+        }
+
+        List<String> failed = new ArrayList<>();
+        for (ITestResult result : results.getFailedTests())
+            failed.add(TrafficRecorder.Name(result));
+        for (ITestResult result : results.getConfigurationFailures())
+            failed.add(TrafficRecorder.Name(result) + " (configuration)");
+        // a <test> without parallel runs on the calling thread, so not every method is virtual
+        Reporter.log(suite + ": " + virtual + " test methods on virtual threads, " + platform + " on platform threads, "
+                + results.getSkippedTests().size() + " skipped", true);
+        Assert.assertTrue(failed.isEmpty(), "Failed on virtual threads: " + failed);
+        Assert.assertTrue(virtual.get() > 0, "No test method of " + suite + " ran on a virtual thread");
+    }
+}